@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.worksap.nlp.sudachi.dictionary.LexiconSet;
+import com.worksap.nlp.sudachi.dictionary.WordLookup;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Builds lattices, and creates the nodes of the dictionary words with the
+ * parameters read separately or at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(time = 3, iterations = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1)
+public class LatticeBuildBench {
+    private static final String TEXT = "東京都に行った。京都に住んでいる。東京都の人口を調べる。東京タワーに行く。";
+
+    private JapaneseTokenizer tokenizer;
+    private LexiconSet lexicon;
+    private UTF8InputText input;
+    private int[] wordIds;
+
+    @Setup
+    public void setup() {
+        tokenizer = (JapaneseTokenizer) TestDictionary.INSTANCE.user1().create();
+        lexicon = tokenizer.lexicon;
+        input = tokenizer.buildInputText(TEXT);
+
+        // collects the word ids which are looked up in building the lattice
+        WordLookup lookup = lexicon.makeLookup();
+        int[] ids = new int[16];
+        int size = 0;
+        for (int i = 0; i < input.getByteLength(); i++) {
+            lookup.reset(input.getByteArray(), input.getByteOffset() + i,
+                    input.getByteOffset() + input.getByteLength());
+            while (lookup.next()) {
+                for (int j = 0; j < lookup.getNumWords(); j++) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                    }
+                    ids[size++] = lookup.getWordsIds()[j];
+                }
+            }
+        }
+        wordIds = Arrays.copyOf(ids, size);
+    }
+
+    @Benchmark
+    public void buildLattice(Blackhole blackhole) {
+        LatticeImpl lattice = tokenizer.buildLattice(input);
+        blackhole.consume(lattice.getBestPath());
+        lattice.clear();
+    }
+
+    @Benchmark
+    public void separateReads(Blackhole blackhole) {
+        LexiconSet lexicon = this.lexicon;
+        for (int wordId : wordIds) {
+            blackhole.consume(new LatticeNodeImpl(lexicon, lexicon.getLeftId(wordId), lexicon.getRightId(wordId),
+                    lexicon.getCost(wordId), wordId));
+        }
+    }
+
+    @Benchmark
+    public void fusedRead(Blackhole blackhole) {
+        LexiconSet lexicon = this.lexicon;
+        for (int wordId : wordIds) {
+            blackhole.consume(new LatticeNodeImpl(lexicon, lexicon.getParameters(wordId), wordId));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Queries the nodes of a lattice by their ranges, as the path rewrite plugins
+ * do, with the binary search in the end lists and with filtering the whole end
+ * lists.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(time = 3, iterations = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1)
+public class LatticeQueryBench {
+    private static final String SENTENCE = "東京都に行った。京都に住んでいる。ｶﾞｰﾃﾞﾝに行きたい。アイアイウに行く。";
+
+    @Param({ "1", "16" })
+    public int repeat;
+
+    private LatticeImpl lattice;
+    private int[] begins;
+    private int[] ends;
+
+    @Setup
+    public void setup() {
+        JapaneseTokenizer tokenizer = (JapaneseTokenizer) TestDictionary.INSTANCE.user1().create();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            text.append(SENTENCE);
+        }
+        UTF8InputText input = tokenizer.buildInputText(text);
+        // the tokenizer is not used anymore, so its lattice is kept as is
+        lattice = tokenizer.buildLattice(input);
+
+        // the ranges of all the pairs of adjacent boundaries of the best path,
+        // which include the ranges without any node
+        List<LatticeNode> path = lattice.getBestPath();
+        int size = path.size() - 1;
+        begins = new int[size * 2];
+        ends = new int[size * 2];
+        for (int i = 0; i < size; i++) {
+            begins[2 * i] = path.get(i).getBegin();
+            ends[2 * i] = path.get(i).getEnd();
+            begins[2 * i + 1] = path.get(i).getBegin();
+            ends[2 * i + 1] = path.get(i + 1).getEnd();
+        }
+    }
+
+    @Benchmark
+    public void getMinimumNode(Blackhole blackhole) {
+        LatticeImpl lattice = this.lattice;
+        for (int i = 0; i < begins.length; i++) {
+            blackhole.consume(lattice.getMinimumNode(begins[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    public void getNodes(Blackhole blackhole) {
+        LatticeImpl lattice = this.lattice;
+        for (int i = 0; i < begins.length; i++) {
+            blackhole.consume(lattice.getNodes(begins[i], ends[i]));
+        }
+    }
+
+    @Benchmark
+    public void filterMinimumNode(Blackhole blackhole) {
+        LatticeImpl lattice = this.lattice;
+        for (int i = 0; i < begins.length; i++) {
+            int begin = begins[i];
+            blackhole.consume(lattice.getNodesWithEnd(ends[i]).stream().filter(n -> n.getBegin() == begin)
+                    .min(Comparator.comparingInt(LatticeNodeImpl::getPathCost)));
+        }
+    }
+
+    @Benchmark
+    public void filterNodes(Blackhole blackhole) {
+        LatticeImpl lattice = this.lattice;
+        for (int i = 0; i < begins.length; i++) {
+            int begin = begins[i];
+            blackhole.consume(lattice.getNodesWithEnd(ends[i]).stream().filter(n -> n.getBegin() == begin)
+                    .collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tokenizes short texts like search queries, with and without the scratch
+ * objects reused for short texts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(time = 3, iterations = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1)
+public class ShortQueryBench {
+    private static final String CORPUS = "東京都に行った。京都に住んでいる。ＡＢＣ東京都の人口を調べる。"
+            + "ｶﾞｰﾃﾞﾝに行きたい。徳島(とくしま)に行く。123個の東京タワー。";
+    private static final int NUM_QUERIES = 256;
+
+    @Param({ "1", "2", "4", "8", "16" })
+    public int queryLength;
+
+    private final List<String> queries = new ArrayList<>();
+    private JapaneseTokenizer shortTokenizer;
+    private JapaneseTokenizer generalTokenizer;
+    private JapaneseTokenizer preNormalizedTokenizer;
+
+    @Setup
+    public void setup() {
+        Dictionary dictionary = TestDictionary.INSTANCE.user1();
+        shortTokenizer = (JapaneseTokenizer) dictionary.create();
+        generalTokenizer = (JapaneseTokenizer) dictionary.create();
+        generalTokenizer.shortInputLength = 0;
+        preNormalizedTokenizer = (JapaneseTokenizer) dictionary.create();
+        preNormalizedTokenizer.setPreNormalized(true);
+
+        queries.clear();
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            int begin = (i * 7) % (CORPUS.length() - queryLength);
+            queries.add(CORPUS.substring(begin, begin + queryLength));
+        }
+    }
+
+    private static void tokenizeAll(Tokenizer tokenizer, List<String> queries, Blackhole blackhole) {
+        for (String query : queries) {
+            MorphemeList morphemes = tokenizer.tokenize(Tokenizer.SplitMode.C, query);
+            for (int i = 0; i < morphemes.size(); i++) {
+                blackhole.consume(morphemes.getEnd(i));
+                blackhole.consume(morphemes.getWordId(i));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void shortInputPath(Blackhole blackhole) {
+        tokenizeAll(shortTokenizer, queries, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void generalPath(Blackhole blackhole) {
+        tokenizeAll(generalTokenizer, queries, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void preNormalized(Blackhole blackhole) {
+        tokenizeAll(preNormalizedTokenizer, queries, blackhole);
+    }
+}
@@ -17,6 +17,7 @@
 package com.worksap.nlp.sudachi;
 
 import com.worksap.nlp.sudachi.dictionary.BinaryDictionary;
+import com.worksap.nlp.sudachi.dictionary.CategoryType;
 import com.worksap.nlp.sudachi.dictionary.CharacterCategory;
 
 import javax.json.Json;
@@ -65,6 +66,9 @@ public class Config {
     private List<PluginConf<OovProviderPlugin>> oovProviders;
     private List<PluginConf<PathRewritePlugin>> pathRewrite;
     private Boolean allowEmptyMorpheme;
+    private Integer shortInputLength;
+    private Integer atomicRunLength;
+    private Set<CategoryType> atomicRunCategories;
     private PathAnchor anchor;
 
     private Config(PathAnchor anchor) {
@@ -329,6 +333,13 @@ public class Config {
         oovProviders = settings.getPlugins("oovProviderPlugin", OovProviderPlugin.class);
         pathRewrite = settings.getPlugins("pathRewritePlugin", PathRewritePlugin.class);
         allowEmptyMorpheme = settings.getBoolean("allowEmptyMorpheme", null);
+        int length = settings.getInt("shortInputLength", -1);
+        shortInputLength = (length < 0) ? null : length;
+        int runLength = settings.getInt("atomicRunLength", -1);
+        atomicRunLength = (runLength < 0) ? null : runLength;
+        List<String> runCategories = settings.getStringList("atomicRunCategories");
+        atomicRunCategories = runCategories.isEmpty() ? null
+                : CategoryType.getTypes(CategoryType.parseIds(runCategories));
         anchor = anchor.andThen(settings.base);
 
         return this;
@@ -488,6 +499,48 @@ public class Config {
         return this;
     }
 
+    /**
+     * Sets the maximum length of the texts which are analyzed with the scratch
+     * objects reused by a tokenizer. Such texts, typically search queries, are
+     * analyzed with less overhead.
+     *
+     * @param length
+     *            the maximum length of the short texts in characters
+     * @return modified Config
+     */
+    public Config shortInputLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        this.shortInputLength = length;
+        return this;
+    }
+
+    /**
+     * Enables the pre-segmentation of long runs of the characters of the
+     * specified categories, such as URLs or encoded data. Such a run is analyzed
+     * as one OOV with the part of speech and the parameters of the first
+     * {@link SimpleOovProviderPlugin}, which must be configured, and the lattice
+     * has no boundary inside it.
+     *
+     * @param minLength
+     *            the minimum length of the runs in characters, or 0 to disable the
+     *            pre-segmentation
+     * @param categories
+     *            the character category types of the characters in the runs
+     * @return modified Config
+     */
+    public Config atomicRuns(int minLength, CategoryType... categories) {
+        if (minLength < 0) {
+            throw new IllegalArgumentException("minLength must not be negative");
+        }
+        this.atomicRunLength = minLength;
+        if (categories.length > 0) {
+            this.atomicRunCategories = EnumSet.copyOf(Arrays.asList(categories));
+        }
+        return this;
+    }
+
     /**
      * Adds one EditConnectionCostPlugin configuration
      *
@@ -602,6 +655,31 @@ public class Config {
         return allowEmptyMorpheme == null || allowEmptyMorpheme;
     }
 
+    /**
+     * @return the maximum length of the texts which are analyzed with the reused
+     *         scratch objects
+     */
+    public int getShortInputLength() {
+        return shortInputLength == null ? JapaneseTokenizer.DEFAULT_SHORT_INPUT_LENGTH : shortInputLength;
+    }
+
+    /**
+     * @return the minimum length of the runs of characters analyzed as one unit,
+     *         or 0 if disabled
+     */
+    public int getAtomicRunLength() {
+        return atomicRunLength == null ? 0 : atomicRunLength;
+    }
+
+    /**
+     * @return the character category types of the characters in the runs analyzed
+     *         as one unit
+     */
+    public Set<CategoryType> getAtomicRunCategories() {
+        return atomicRunCategories == null ? EnumSet.of(CategoryType.ALPHA, CategoryType.NUMERIC, CategoryType.SYMBOL)
+                : Collections.unmodifiableSet(atomicRunCategories);
+    }
+
     /**
      * Merges this Config with another Config. Compared to
      * {@link Settings#withFallback(Settings)}, merging is done for already resolved
@@ -627,6 +705,9 @@ public class Config {
         oovProviders = mergePluginList(oovProviders, other.oovProviders);
         pathRewrite = mergePluginList(pathRewrite, other.pathRewrite);
         allowEmptyMorpheme = mergeOne(allowEmptyMorpheme, other.allowEmptyMorpheme);
+        shortInputLength = mergeOne(shortInputLength, other.shortInputLength);
+        atomicRunLength = mergeOne(atomicRunLength, other.atomicRunLength);
+        atomicRunCategories = mergeOne(atomicRunCategories, other.atomicRunCategories);
         anchor = anchor.andThen(other.anchor);
         return this;
     }
@@ -645,13 +726,17 @@ public class Config {
                 && Objects.equals(inputText, config.inputText) && Objects.equals(oovProviders, config.oovProviders)
                 && Objects.equals(pathRewrite, config.pathRewrite)
                 && Objects.equals(allowEmptyMorpheme, config.allowEmptyMorpheme)
+                && Objects.equals(shortInputLength, config.shortInputLength)
+                && Objects.equals(atomicRunLength, config.atomicRunLength)
+                && Objects.equals(atomicRunCategories, config.atomicRunCategories)
                 && Objects.equals(anchor, config.anchor);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(systemDictionary, userDictionary, characterDefinition, editConnectionCost, inputText,
-                oovProviders, pathRewrite, allowEmptyMorpheme, anchor);
+                oovProviders, pathRewrite, allowEmptyMorpheme, shortInputLength, atomicRunLength, atomicRunCategories,
+                anchor);
     }
 
     /**
@@ -23,6 +23,7 @@ import java.io.LineNumberReader;
 import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -70,14 +71,22 @@ import com.worksap.nlp.sudachi.dictionary.Grammar;
  * }
  * </pre>
  */
-class DefaultInputTextPlugin extends InputTextPlugin {
+class DefaultInputTextPlugin extends InputTextPlugin implements StreamingInputTextPlugin {
 
     /** the file path of the rules */
     Config.Resource<InputStream> rewriteDef;
 
-    private Set<Integer> ignoreNormalizeSet = new HashSet<>();
-    private Map<Character, Integer> keyLengths = new HashMap<>();
-    private Map<String, String> replaceCharMap = new HashMap<>();
+    Set<Integer> ignoreNormalizeSet = new HashSet<>();
+    Map<String, String> replaceCharMap = new HashMap<>();
+    private ReplacementTrie replaceCharTrie;
+
+    /**
+     * The normalized forms of the characters in the BMP, or {@code null} if the
+     * character is not changed by the normalization.
+     */
+    private String[] bmpNormalized;
+    /** the characters which begin the targets of the rewriting rules */
+    private BitSet rewriteTargetHeads;
 
     /**
      * Reads the rewriting rules from the specified file.
@@ -107,50 +116,109 @@ class DefaultInputTextPlugin extends InputTextPlugin {
                 is.close();
             }
         }
+        buildNormalizationTable();
+    }
 
+    private void buildNormalizationTable() {
+        bmpNormalized = new String[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (!Character.isSurrogate((char) c)) {
+                bmpNormalized[c] = normalize(c);
+            }
+        }
+        replaceCharTrie = ReplacementTrie.build(replaceCharMap);
+        rewriteTargetHeads = new BitSet();
+        for (String target : replaceCharMap.keySet()) {
+            rewriteTargetHeads.set(target.charAt(0));
+        }
     }
 
     @Override
     public void rewrite(InputTextBuilder builder) {
-        int offset = 0;
-        int nextOffset = 0;
-        String text = builder.getText();
-        textloop: for (int i = 0; i < text.length(); i = text.offsetByCodePoints(i, 1)) {
-            offset += nextOffset;
-            nextOffset = 0;
-            // 1. replace char without normalize
-            for (int l = Math.min(keyLengths.getOrDefault(text.charAt(i), 0), text.length() - i); l > 0; l--) {
-                String replace = replaceCharMap.get(text.substring(i, i + l));
-                if (replace != null) {
-                    builder.replace(i + offset, i + l + offset, replace);
-                    nextOffset += replace.length() - l;
-                    i += l - 1;
-                    continue textloop;
-                }
-            }
+        InputTextTransformer.rewrite(builder, newTransformer());
+    }
 
-            // 2. normalize
-            int original = text.codePointAt(i);
-            int charLength = text.offsetByCodePoints(i, 1) - i;
+    @Override
+    public InputTextTransformer newTransformer() {
+        return new Transformer();
+    }
 
-            // 2-1. capital alphabet (not only latin but greek, cyrillic, etc) -> small
-            int lower = Character.toLowerCase(original);
-            String replace;
-            if (ignoreNormalizeSet.contains(lower)) {
-                if (original == lower) {
+    private class Transformer extends InputTextTransformer {
+        @Override
+        protected void transform() {
+            while (available() > 0) {
+                // 0. skip the characters which are not changed
+                char ch = charAt(0);
+                if (isUnchanged(ch)) {
+                    int length = 1;
+                    while (length < available() && isUnchanged(charAt(length))) {
+                        length++;
+                    }
+                    keep(length);
                     continue;
                 }
-                replace = new String(Character.toChars(lower));
-            } else {
-                // 2-2. normalize (except in ignoreNormalize)
-                // e.g. full-width alphabet -> half-width / ligature / etc.
-                replace = Normalizer.normalize(new String(Character.toChars(lower)), Form.NFKC);
+
+                // 1. replace char without normalize
+                if (rewriteTargetHeads.get(ch)) {
+                    if (available() < replaceCharTrie.getMaxLength() && !isEnded()) {
+                        return;
+                    }
+                    int matched = replaceCharTrie.longestMatch(buffered(), 0);
+                    if (matched >= 0) {
+                        replace(replaceCharTrie.getLength(matched), replaceCharTrie.getReplacement(matched));
+                        continue;
+                    }
+                }
+
+                // 2. normalize
+                String replace;
+                int charLength;
+                if (Character.isSurrogate(ch)) {
+                    if (!hasCodePointAt(0)) {
+                        return;
+                    }
+                    int original = codePointAt(0);
+                    replace = normalize(original);
+                    charLength = Character.charCount(original);
+                } else {
+                    replace = bmpNormalized[ch];
+                    charLength = 1;
+                }
+                if (replace != null) {
+                    replace(charLength, replace);
+                } else {
+                    keep(charLength);
+                }
             }
-            nextOffset = replace.length() - charLength;
-            if (replace.length() != charLength || original != replace.codePointAt(0)) {
-                builder.replace(i + offset, i + charLength + offset, replace);
+        }
+    }
+
+    private boolean isUnchanged(char ch) {
+        return bmpNormalized[ch] == null && !Character.isSurrogate(ch) && !rewriteTargetHeads.get(ch);
+    }
+
+    /**
+     * Returns the normalized form of the character, or {@code null} if the
+     * character is not changed.
+     */
+    private String normalize(int original) {
+        // 2-1. capital alphabet (not only latin but greek, cyrillic, etc) -> small
+        int lower = Character.toLowerCase(original);
+        String replace;
+        if (ignoreNormalizeSet.contains(lower)) {
+            if (original == lower) {
+                return null;
             }
+            replace = new String(Character.toChars(lower));
+        } else {
+            // 2-2. normalize (except in ignoreNormalize)
+            // e.g. full-width alphabet -> half-width / ligature / etc.
+            replace = Normalizer.normalize(new String(Character.toChars(lower)), Form.NFKC);
         }
+        if (replace.length() == Character.charCount(original) && original == replace.codePointAt(0)) {
+            return null;
+        }
+        return replace;
     }
 
     private static final Pattern PATTERN_SPACES = Pattern.compile("\\s+");
@@ -180,10 +248,6 @@ class DefaultInputTextPlugin extends InputTextPlugin {
                         throw new IllegalArgumentException(
                                 cols[0] + " is already defined at line " + reader.getLineNumber());
                     }
-                    if (keyLengths.getOrDefault(cols[0].charAt(0), -1) < cols[0].length()) {
-                        // store the longest key length
-                        keyLengths.put(cols[0].charAt(0), cols[0].length());
-                    }
                     replaceCharMap.put(cols[0], cols[1]);
                 } else {
                     throw new IllegalArgumentException("invalid format at line " + reader.getLineNumber());
@@ -52,11 +52,11 @@ import com.worksap.nlp.sudachi.dictionary.Grammar;
  * With above setting example, the plugin rewrites input "徳島（とくしま）に行(い)く" to
  * "徳島に行く".
  */
-class IgnoreYomiganaPlugin extends InputTextPlugin {
+class IgnoreYomiganaPlugin extends InputTextPlugin implements StreamingInputTextPlugin {
 
-    private Set<Integer> leftBracketSet = new HashSet<>();
-    private Set<Integer> rightBracketSet = new HashSet<>();
-    private int maxYomiganaLength;
+    Set<Integer> leftBracketSet = new HashSet<>();
+    Set<Integer> rightBracketSet = new HashSet<>();
+    int maxYomiganaLength;
     private Grammar grammar;
 
     @Override
@@ -75,44 +75,92 @@ class IgnoreYomiganaPlugin extends InputTextPlugin {
 
     @Override
     public void rewrite(InputTextBuilder builder) {
-        String text = builder.getText();
-
-        int n = text.length();
-        int startBracketPoint = -1;
-        int offset = 0;
-        boolean hasYomigana = false;
-        for (int i = 1; i < n; i++) {
-            int cp = text.codePointAt(i);
-
-            if (isKanji(text.codePointAt(i - 1)) && leftBracketSet.contains(cp)) {
-                startBracketPoint = i;
-            } else if (hasYomigana && rightBracketSet.contains(cp)) {
-                builder.replace(startBracketPoint - 1 - offset, i + 1 - offset,
-                        text.substring(startBracketPoint - 1, startBracketPoint));
-                offset += i - startBracketPoint + 1;
-                startBracketPoint = -1;
-                hasYomigana = false;
-            } else if (startBracketPoint != -1) {
-                if ((isHiragana(cp) || isKatakana(cp)) && i - startBracketPoint <= maxYomiganaLength) {
-                    hasYomigana = true;
-                } else {
+        InputTextTransformer.rewrite(builder, newTransformer());
+    }
+
+    @Override
+    public InputTextTransformer newTransformer() {
+        return new Transformer();
+    }
+
+    /**
+     * Buffers the characters from a kanji followed by a left bracket until the
+     * yomigana is closed or turns out not to be one. The last examined character
+     * is always kept in the buffer as a candidate of the kanji.
+     */
+    private class Transformer extends InputTextTransformer {
+        /** the number of the buffered characters which are already examined */
+        private int scanned;
+        private int previousCodePoint = -1;
+        /** the index of the left bracket in the buffer */
+        private int startBracketPoint = -1;
+        private boolean hasYomigana;
+
+        @Override
+        protected void reset() {
+            super.reset();
+            scanned = 0;
+            previousCodePoint = -1;
+            startBracketPoint = -1;
+            hasYomigana = false;
+        }
+
+        @Override
+        protected void transform() {
+            while (scanned < available()) {
+                if (!hasCodePointAt(scanned)) {
+                    return;
+                }
+                int cp = codePointAt(scanned);
+
+                if (previousCodePoint < 0) {
+                    // the first character cannot be a bracket of yomigana
+                } else if (scanned > 0 && isKanji(previousCodePoint) && leftBracketSet.contains(cp)) {
+                    keep(scanned - 1);
+                    scanned = 1;
+                    startBracketPoint = 1;
+                } else if (hasYomigana && rightBracketSet.contains(cp)) {
+                    // the kanji is at the beginning of the buffer
+                    replace(scanned + 1, String.valueOf(charAt(0)));
+                    previousCodePoint = cp;
+                    scanned = 0;
                     startBracketPoint = -1;
                     hasYomigana = false;
+                    continue;
+                } else if (startBracketPoint != -1) {
+                    if ((isHiragana(cp) || isKatakana(cp)) && scanned - startBracketPoint <= maxYomiganaLength) {
+                        hasYomigana = true;
+                    } else {
+                        startBracketPoint = -1;
+                        hasYomigana = false;
+                    }
                 }
+
+                previousCodePoint = cp;
+                scanned++;
+                if (startBracketPoint == -1 && scanned > 1) {
+                    // the last character may be followed by a left bracket
+                    keep(scanned - 1);
+                    scanned = 1;
+                }
+            }
+            if (isEnded()) {
+                keep(available());
+                scanned = 0;
             }
         }
     }
 
     private Boolean isKanji(int cp) {
-        return grammar.getCharacterCategory().getCategoryTypes(cp).contains(CategoryType.KANJI);
+        return (grammar.getCharacterCategory().getCategoryTypeIds(cp) & CategoryType.KANJI.getId()) != 0;
     }
 
     private Boolean isHiragana(int cp) {
-        return grammar.getCharacterCategory().getCategoryTypes(cp).contains(CategoryType.HIRAGANA);
+        return (grammar.getCharacterCategory().getCategoryTypeIds(cp) & CategoryType.HIRAGANA.getId()) != 0;
     }
 
     private Boolean isKatakana(int cp) {
-        return grammar.getCharacterCategory().getCategoryTypes(cp).contains(CategoryType.KATAKANA);
+        return (grammar.getCharacterCategory().getCategoryTypeIds(cp) & CategoryType.KATAKANA.getId()) != 0;
     }
 
 }
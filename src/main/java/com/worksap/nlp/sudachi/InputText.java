@@ -103,6 +103,45 @@ public interface InputText {
      */
     public Set<CategoryType> getCharCategoryTypes(int index);
 
+    /**
+     * Returns the category types of the character at the specified {@code index}
+     * as a bitmask of {@link CategoryType#getId()}. Unlike
+     * {@link #getCharCategoryTypes(int)}, this does not create a set.
+     *
+     * @param index
+     *            the index of the modified text
+     * @return the bitmask of the character category types
+     * @throws IndexOutOfBoundsException
+     *             if {@code index} are negative, greater than the length of the
+     *             sequence
+     */
+    default int getCharCategoryTypeIds(int index) {
+        int ids = 0;
+        for (CategoryType type : getCharCategoryTypes(index)) {
+            ids |= type.getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the union of the category types of all the characters in the text
+     * as a bitmask of {@link CategoryType#getId()}.
+     *
+     * <p>
+     * A plugin can check this bitmask to skip the text which does not contain the
+     * characters it works on.
+     *
+     * @return the bitmask of the character category types in the text
+     */
+    default int getCharCategoryTypeIdsInText() {
+        int ids = 0;
+        int length = getByteLength();
+        for (int i = 0; i < length; i++) {
+            ids |= getCharCategoryTypeIds(i);
+        }
+        return ids;
+    }
+
     /**
      * Returns the intersection of the sets of category types of each characters in
      * the specified substring. The substring begins at the specified {@code begin}
@@ -120,6 +159,29 @@ public interface InputText {
      */
     public Set<CategoryType> getCharCategoryTypes(int begin, int end);
 
+    /**
+     * Returns the intersection of the category types of each characters in the
+     * specified substring as a bitmask of {@link CategoryType#getId()}. The
+     * result is the same as {@link #getCharCategoryTypes(int, int)}.
+     *
+     * @param begin
+     *            the beginning index
+     * @param end
+     *            the ending index
+     * @return the bitmask of the character category types
+     * @throws IndexOutOfBoundsException
+     *             if {@code begin} or {@code end} are negative, greater than the
+     *             length of the sequence, or {@code begin} is greater than
+     *             {@code end}
+     */
+    default int getCharCategoryTypeIds(int begin, int end) {
+        int ids = 0;
+        for (CategoryType type : getCharCategoryTypes(begin, end)) {
+            ids |= type.getId();
+        }
+        return ids;
+    }
+
     /**
      * Returns the longest length of the substring all the character of which share
      * the same character category types. The substring begins at the specified
@@ -218,4 +280,13 @@ public interface InputText {
      * @return bytes of utf-8 representation
      */
     byte[] getByteText();
+
+    /**
+     * Returns the length of utf-8 representation of input text
+     *
+     * @return the length of bytes of utf-8 representation
+     */
+    default int getByteLength() {
+        return getByteText().length;
+    }
 }
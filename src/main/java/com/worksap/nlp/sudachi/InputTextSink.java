@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+/**
+ * A receiver of the characters of a text in a single-pass rewriting.
+ *
+ * @see InputTextTransformer
+ */
+interface InputTextSink {
+
+    /**
+     * Receives a character.
+     *
+     * @param c
+     *            the character
+     * @param origin
+     *            the index of the original text mapped from the character
+     */
+    void put(char c, int origin);
+
+    /**
+     * Receives the end of the text.
+     *
+     * @param origin
+     *            the index of the original text mapped from the end of the text
+     */
+    void end(int origin);
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.Arrays;
+
+/**
+ * A stage of rewriting input texts in a single pass.
+ *
+ * <p>
+ * A transformer receives the characters of the text one by one with the
+ * indices of the original text mapped from them, and passes the rewritten
+ * characters to the next stage. Several transformers can be chained, so the
+ * input text is rewritten by all of them in one pass without materializing the
+ * intermediate texts.
+ *
+ * <p>
+ * The received characters are buffered until the subclass decides what to do
+ * with them in {@link #transform()}, by calling {@link #keep(int)} or
+ * {@link #replace(int, String)}. The indices of the original text are mapped in
+ * the same way as {@link InputTextBuilder#replace}.
+ *
+ * @see StreamingInputTextPlugin
+ */
+abstract class InputTextTransformer implements InputTextSink {
+
+    private char[] chars = new char[16];
+    private int[] origins = new int[16];
+    private int head;
+    private int size;
+    private boolean ended;
+    private int endOrigin;
+
+    /** the index of the first buffered character in the input */
+    private int position;
+    /** the origin of the deleted characters, which is mapped from the next one */
+    private int carriedOrigin = -1;
+    /** the multi-character replacement waiting for the origin of the next one */
+    private String pendingReplacement;
+
+    private InputTextSink next;
+    private InputTextBuilder builder;
+    /** the builder if it records the replacements to apply them at once */
+    private UTF8InputTextBuilder batchBuilder;
+    /** the difference of the indices in the builder from the ones in the input */
+    private int shift;
+
+    private final CharSequence buffered = new CharSequence() {
+        @Override
+        public int length() {
+            return size;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[head + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, head + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, head, size);
+        }
+    };
+
+    /**
+     * Rewrites the buffered characters.
+     *
+     * <p>
+     * This method is called whenever a character or the end of the text is
+     * received. Implementations consume the buffered characters from the
+     * beginning with {@link #keep(int)} and {@link #replace(int, String)} as far
+     * as they can decide. After the end of the text is received, all of the
+     * characters must be consumed.
+     */
+    protected abstract void transform();
+
+    /**
+     * Clears the state of the transformer to rewrite a new text. Subclasses
+     * which have their own state must override this method and call
+     * {@code super.reset()}.
+     */
+    protected void reset() {
+        head = 0;
+        size = 0;
+        ended = false;
+        endOrigin = 0;
+        position = 0;
+        carriedOrigin = -1;
+        pendingReplacement = null;
+        next = null;
+        builder = null;
+        batchBuilder = null;
+        shift = 0;
+    }
+
+    /**
+     * Rewrites the text of the builder by the transformer.
+     *
+     * @param builder
+     *            the builder to rewrite
+     * @param transformer
+     *            the transformer
+     */
+    static void rewrite(InputTextBuilder builder, InputTextTransformer transformer) {
+        String text = builder.getText();
+        transformer.reset();
+        transformer.builder = builder;
+        if (builder instanceof UTF8InputTextBuilder) {
+            transformer.batchBuilder = (UTF8InputTextBuilder) builder;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            transformer.put(text.charAt(i), i);
+        }
+        transformer.end(text.length());
+        if (transformer.batchBuilder != null) {
+            transformer.batchBuilder.applyReplacements();
+        }
+    }
+
+    /**
+     * Sets the next stage which receives the rewritten characters.
+     *
+     * @param next
+     *            the next stage
+     */
+    void setNext(InputTextSink next) {
+        this.next = next;
+    }
+
+    @Override
+    public final void put(char c, int origin) {
+        if (pendingReplacement != null) {
+            flushReplacement(origin);
+        }
+        if (head + size == chars.length) {
+            if (size * 2 > chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+                origins = Arrays.copyOf(origins, origins.length * 2);
+            }
+            System.arraycopy(chars, head, chars, 0, size);
+            System.arraycopy(origins, head, origins, 0, size);
+            head = 0;
+        }
+        chars[head + size] = c;
+        origins[head + size] = origin;
+        size++;
+        transform();
+    }
+
+    @Override
+    public final void end(int origin) {
+        if (pendingReplacement != null) {
+            flushReplacement(origin);
+        }
+        ended = true;
+        endOrigin = origin;
+        transform();
+        if (size != 0) {
+            throw new IllegalStateException("characters are left at the end of the text");
+        }
+        if (next != null) {
+            next.end(carriedOrigin >= 0 ? carriedOrigin : origin);
+        }
+    }
+
+    /**
+     * Returns the number of the buffered characters.
+     *
+     * @return the number of the buffered characters
+     */
+    protected int available() {
+        return size;
+    }
+
+    /**
+     * Returns whether the end of the text is received.
+     *
+     * @return {@code true} if the end of the text is received
+     */
+    protected boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * Returns the buffered character at the specified index.
+     *
+     * @param index
+     *            the index in the buffer
+     * @return the character
+     */
+    protected char charAt(int index) {
+        return chars[head + index];
+    }
+
+    /**
+     * Returns the buffered characters as {@link CharSequence}. The view is
+     * invalidated when the buffer is changed.
+     *
+     * @return the buffered characters
+     */
+    protected CharSequence buffered() {
+        return buffered;
+    }
+
+    /**
+     * Returns whether {@link #codePointAt(int)} can be decided, that is whether
+     * the character is not a high surrogate followed by a character not received
+     * yet.
+     *
+     * @param index
+     *            the index in the buffer
+     * @return {@code true} if the code point can be decided
+     */
+    protected boolean hasCodePointAt(int index) {
+        return index + 1 < size || ended || !Character.isHighSurrogate(charAt(index));
+    }
+
+    /**
+     * Returns the code point at the specified index in the same way as
+     * {@link String#codePointAt(int)}.
+     *
+     * @param index
+     *            the index in the buffer
+     * @return the code point
+     */
+    protected int codePointAt(int index) {
+        char c = charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < size) {
+            char low = charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(c, low);
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Passes the first {@code length} characters without changes.
+     *
+     * @param length
+     *            the number of the characters
+     */
+    protected void keep(int length) {
+        if (next != null) {
+            for (int i = 0; i < length; i++) {
+                emit(chars[head + i], origins[head + i]);
+            }
+        }
+        consume(length);
+    }
+
+    /**
+     * Replaces the first {@code length} characters with {@code str}.
+     *
+     * @param length
+     *            the number of the characters
+     * @param str
+     *            the replacement string
+     */
+    protected void replace(int length, String str) {
+        if (next == null) {
+            if (batchBuilder != null) {
+                batchBuilder.addReplacement(position, position + length, str);
+            } else {
+                builder.replace(position + shift, position + length + shift, str);
+                shift += str.length() - length;
+            }
+            consume(length);
+            return;
+        }
+
+        int origin = origins[head];
+        if (str.isEmpty()) {
+            if (carriedOrigin < 0) {
+                carriedOrigin = origin;
+            }
+            consume(length);
+            return;
+        }
+
+        emit(str.charAt(0), origin);
+        consume(length);
+        if (str.length() > 1) {
+            pendingReplacement = str;
+            if (size > 0) {
+                flushReplacement(origins[head]);
+            } else if (ended) {
+                flushReplacement(endOrigin);
+            }
+        }
+    }
+
+    private void flushReplacement(int nextOrigin) {
+        String str = pendingReplacement;
+        pendingReplacement = null;
+        for (int i = 1; i < str.length(); i++) {
+            next.put(str.charAt(i), nextOrigin);
+        }
+    }
+
+    private void emit(char c, int origin) {
+        if (carriedOrigin >= 0) {
+            origin = carriedOrigin;
+            carriedOrigin = -1;
+        }
+        next.put(c, origin);
+    }
+
+    private void consume(int length) {
+        if (length > size) {
+            throw new IndexOutOfBoundsException("length > available()");
+        }
+        head += length;
+        size -= length;
+        position += length;
+        if (size == 0) {
+            head = 0;
+        }
+    }
+}
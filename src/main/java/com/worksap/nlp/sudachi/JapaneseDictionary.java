@@ -32,15 +32,23 @@ import java.util.stream.IntStream;
 public class JapaneseDictionary implements Dictionary, DictionaryAccess {
 
     GrammarImpl grammar;
-    LexiconSet lexicon;
+    BinaryDictionary systemDictionary;
+    /** the number of the parts of speech of the system dictionary and the plugins */
+    short basePosSize;
+    /**
+     * the lexicon of the system and the user dictionaries with their parts of
+     * speech, which is replaced as a whole by {@link #swapUserDictionaries(Config)}
+     */
+    volatile Snapshot snapshot;
     List<InputTextPlugin> inputTextPlugins;
     List<OovProviderPlugin> oovProviderPlugins;
     List<PathRewritePlugin> pathRewritePlugins;
-    List<BinaryDictionary> dictionaries;
     boolean allowEmptyMorpheme;
+    int shortInputLength;
+    int atomicRunLength;
+    int atomicRunCategories;
 
     JapaneseDictionary(Config config) throws IOException {
-        dictionaries = new ArrayList<>();
         setupSystemDictionary(config);
         for (Config.PluginConf<EditConnectionCostPlugin> p : config.getEditConnectionCostPlugins()) {
             EditConnectionCostPlugin instance = p.instantiate(config.getAnchor());
@@ -72,36 +80,124 @@ public class JapaneseDictionary implements Dictionary, DictionaryAccess {
         setupUserDictionaries(config);
 
         allowEmptyMorpheme = config.isAllowEmptyMorpheme();
+        shortInputLength = config.getShortInputLength();
+        atomicRunLength = config.getAtomicRunLength();
+        if (atomicRunLength > 0
+                && oovProviderPlugins.stream().noneMatch(p -> p instanceof SimpleOovProviderPlugin)) {
+            throw new IllegalArgumentException("atomic runs require SimpleOovProviderPlugin");
+        }
+        for (CategoryType type : config.getAtomicRunCategories()) {
+            atomicRunCategories |= type.getId();
+        }
     }
 
     void setupSystemDictionary(Config config) throws IOException {
-        BinaryDictionary dictionary = BinaryDictionary.loadSystem(config.getSystemDictionary());
-        dictionaries.add(dictionary);
-        grammar = dictionary.getGrammar();
-        lexicon = new LexiconSet(dictionary.getLexicon(), grammar.getSystemPartOfSpeechSize());
+        systemDictionary = BinaryDictionary.loadSystem(config.getSystemDictionary());
+        grammar = systemDictionary.getGrammar();
     }
 
     void setupUserDictionaries(Config config) throws IOException {
-        for (Config.Resource<BinaryDictionary> userDic : config.getUserDictionaries()) {
-            BinaryDictionary instance = BinaryDictionary.loadUser(userDic);
-            addUserDictionary(instance);
-        }
+        basePosSize = (short) grammar.getPartOfSpeechSize();
+        snapshot = loadUserDictionaries(config, Collections.emptyList());
     }
 
-    void addUserDictionary(BinaryDictionary dictionary) {
-        if (lexicon.isFull()) {
-            throw new IllegalArgumentException("too many dictionaries");
+    /**
+     * Replaces the user dictionaries with the ones of the specified settings,
+     * keeping the system dictionary, the grammar and the plugins.
+     *
+     * <p>
+     * The user dictionaries are loaded into a new lexicon, which is published at
+     * once with their parts of speech. The tokenizers created by this dictionary
+     * switch to it at their next sentence, while the sentences in analysis finish
+     * with the previous one. The {@link Morpheme}s returned before the call keep
+     * using the previous user dictionaries, which are released when they are not
+     * referenced anymore.
+     *
+     * <p>
+     * {@link PosMatcher}s created before the call do not match the parts of
+     * speech of the new user dictionaries.
+     *
+     * @param config
+     *            the settings which specify the user dictionaries. The other
+     *            settings are ignored.
+     * @throws IOException
+     *             if a user dictionary cannot be loaded
+     * @throws IllegalArgumentException
+     *             if there are too many user dictionaries or parts of speech, or a
+     *             user dictionary is already used by this dictionary
+     * @throws IllegalStateException
+     *             if this dictionary is closed
+     */
+    public synchronized void swapUserDictionaries(Config config) throws IOException {
+        Snapshot previous = snapshot;
+        if (grammar == null || previous == null) {
+            throw new IllegalStateException("trying to use closed dictionary");
         }
+        snapshot = loadUserDictionaries(config, previous.userDictionaries);
+    }
 
-        dictionaries.add(dictionary);
+    private Snapshot loadUserDictionaries(Config config, List<BinaryDictionary> inUse) throws IOException {
+        LexiconSet lexicon = new LexiconSet(systemDictionary.getLexicon(), grammar.getSystemPartOfSpeechSize());
+        List<BinaryDictionary> userDictionaries = new ArrayList<>();
+        List<GrammarImpl> userGrammars = new ArrayList<>();
+        int posOffset = basePosSize;
+        try {
+            for (Config.Resource<BinaryDictionary> userDic : config.getUserDictionaries()) {
+                BinaryDictionary instance = BinaryDictionary.loadUser(userDic);
+                if (inUse.contains(instance)) {
+                    // it is the very instance in use, so it must not be closed, and
+                    // its lexicon would be renumbered under the tokenizers using it
+                    throw new IllegalArgumentException("the user dictionary is already in use");
+                }
+                userDictionaries.add(instance);
+                if (lexicon.isFull()) {
+                    throw new IllegalArgumentException("too many dictionaries");
+                }
+                GrammarImpl userGrammar = instance.getGrammar();
+                if (posOffset + userGrammar.getPartOfSpeechSize() > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("too many parts of speech");
+                }
 
-        DoubleArrayLexicon userLexicon = dictionary.getLexicon();
-        Tokenizer tokenizer = new JapaneseTokenizer(grammar, lexicon, inputTextPlugins, oovProviderPlugins,
-                Collections.emptyList());
-        userLexicon.calculateCost(tokenizer);
+                DoubleArrayLexicon userLexicon = instance.getLexicon();
+                userLexicon.calculateCost(newCostTokenizer(grammar, lexicon));
+                lexicon.add(userLexicon, (short) posOffset);
+                posOffset += userGrammar.getPartOfSpeechSize();
+                userGrammars.add(userGrammar);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (BinaryDictionary dictionary : userDictionaries) {
+                try {
+                    dictionary.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        return new Snapshot(lexicon, grammar.withUserPosList(basePosSize, userGrammars), userDictionaries);
+    }
+
+    /**
+     * Creates a tokenizer which calculates the costs of the user words which do
+     * not specify their costs, in the same way as when loading a user dictionary
+     * into this dictionary.
+     *
+     * @return a tokenizer to calculate the costs of the user words
+     * @throws IllegalStateException
+     *             if this dictionary is closed
+     * @see com.worksap.nlp.sudachi.dictionary.build.DicBuilder.User#calculateCosts(Tokenizer)
+     */
+    public Tokenizer createCostTokenizer() {
+        Snapshot current = snapshot;
+        if (grammar == null || current == null) {
+            throw new IllegalStateException("trying to use closed dictionary");
+        }
+        return newCostTokenizer(current.grammar, current.lexicon);
+    }
 
-        lexicon.add(userLexicon, (short) grammar.getPartOfSpeechSize());
-        grammar.addPosList(dictionary.getGrammar());
+    private Tokenizer newCostTokenizer(GrammarImpl grammar, LexiconSet lexicon) {
+        // the surfaces of the user words are analyzed without the path rewrite plugins
+        return new JapaneseTokenizer(grammar, lexicon, inputTextPlugins, oovProviderPlugins, Collections.emptyList());
     }
 
     void setupCharacterDefinition(Config config) throws IOException {
@@ -117,37 +213,44 @@ public class JapaneseDictionary implements Dictionary, DictionaryAccess {
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         grammar.invalidate();
         grammar = null;
-        lexicon.invalidate();
-        lexicon = null;
-        for (BinaryDictionary dictionary : dictionaries) {
+        Snapshot current = snapshot;
+        snapshot = null;
+        current.lexicon.invalidate();
+        for (BinaryDictionary dictionary : current.userDictionaries) {
             dictionary.close();
         }
+        systemDictionary.close();
     }
 
     @Override
     public Tokenizer create() {
-        if (grammar == null || lexicon == null) {
+        Snapshot current = snapshot;
+        if (grammar == null || current == null) {
             throw new IllegalStateException("trying to use closed dictionary");
         }
-        JapaneseTokenizer tokenizer = new JapaneseTokenizer(grammar, lexicon, inputTextPlugins, oovProviderPlugins,
-                pathRewritePlugins);
+        JapaneseTokenizer tokenizer = new JapaneseTokenizer(current.grammar, current.lexicon, inputTextPlugins,
+                oovProviderPlugins, pathRewritePlugins);
         if (!allowEmptyMorpheme) {
             tokenizer.disableEmptyMorpheme();
         }
+        tokenizer.shortInputLength = shortInputLength;
+        tokenizer.atomicRunLength = atomicRunLength;
+        tokenizer.atomicRunCategories = atomicRunCategories;
+        tokenizer.dictionary = this;
         return tokenizer;
     }
 
     @Override
     public int getPartOfSpeechSize() {
-        return grammar.getPartOfSpeechSize();
+        return getGrammar().getPartOfSpeechSize();
     }
 
     @Override
     public List<String> getPartOfSpeechString(short posId) {
-        return grammar.getPartOfSpeechString(posId);
+        return getGrammar().getPartOfSpeechString(posId);
     }
 
     static String readAll(InputStream input) throws IOException {
@@ -166,11 +269,14 @@ public class JapaneseDictionary implements Dictionary, DictionaryAccess {
     }
 
     public GrammarImpl getGrammar() {
-        return grammar;
+        Snapshot current = snapshot;
+        // the plugins are set up before the user dictionaries are loaded
+        return current == null ? grammar : current.grammar;
     }
 
     public LexiconSet getLexicon() {
-        return lexicon;
+        Snapshot current = snapshot;
+        return current == null ? null : current.lexicon;
     }
 
     @Override
@@ -181,4 +287,20 @@ public class JapaneseDictionary implements Dictionary, DictionaryAccess {
                 .toArray();
         return new PosMatcher(ids, this);
     }
+
+    /**
+     * A published lexicon with the parts of speech and the user dictionaries it
+     * was built from, which is never modified.
+     */
+    static final class Snapshot {
+        final LexiconSet lexicon;
+        final GrammarImpl grammar;
+        final List<BinaryDictionary> userDictionaries;
+
+        Snapshot(LexiconSet lexicon, GrammarImpl grammar, List<BinaryDictionary> userDictionaries) {
+            this.lexicon = lexicon;
+            this.grammar = grammar;
+            this.userDictionaries = userDictionaries;
+        }
+    }
 }
@@ -20,8 +20,14 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -41,12 +47,45 @@ class JapaneseTokenizer implements Tokenizer {
     List<OovProviderPlugin> oovProviderPlugins;
     List<PathRewritePlugin> pathRewritePlugins;
     OovProviderPlugin defaultOovProvider;
+    /** the provider whose part of speech and parameters the OOVs of the atomic runs have */
+    SimpleOovProviderPlugin atomicRunOovProvider;
     PrintStream dumpOutput;
     JsonObjectBuilder jsonBuilder;
     boolean allowEmptyMorpheme;
+    boolean preNormalized;
+    /** the texts of this length or shorter are analyzed with the reused scratch objects */
+    int shortInputLength = DEFAULT_SHORT_INPUT_LENGTH;
+    /** the runs of these character categories and of this length or longer are analyzed as one unit */
+    int atomicRunCategories;
+    int atomicRunLength;
+    /** the dictionary to take the latest lexicon from at each sentence, or null to keep the lexicon */
+    JapaneseDictionary dictionary;
 
     LatticeImpl lattice;
 
+    static final int DEFAULT_SHORT_INPUT_LENGTH = 32;
+    private static final int INITIAL_NODES_CAPACITY = 64;
+    private static final int MAX_RETAINED_NODES_CAPACITY = 4096;
+
+    // scratch objects reused for short texts, which are created at the first use
+    private boolean isShortInput;
+    private UTF8InputTextBuilder scratchBuilder;
+    private InputTextTransformer[] scratchTransformers;
+    private final List<InputTextTransformer> scratchTransformerList = new ArrayList<>();
+
+    // reused for all texts and reset at each sentence; the lookup is created at the first use
+    private WordLookup wordLookup;
+    private ArrayList<LatticeNodeImpl> unkNodes = new ArrayList<>(INITIAL_NODES_CAPACITY);
+    private OovProviderPlugin[] activeOovProviders;
+
+    // split lengths are stored as unsigned bytes in the dictionary
+    private final int[] splitBuffer = new int[LatticeNodeImpl.MAX_SPLIT_LENGTH];
+    private int[] boundaries = new int[64];
+    private int numBoundaries;
+    // decodes the texts in UTF-8, and is reset at each use
+    private final CharsetDecoder utf8Decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+
     JapaneseTokenizer(Grammar grammar, Lexicon lexicon, List<InputTextPlugin> inputTextPlugins,
             List<OovProviderPlugin> oovProviderPlugins, List<PathRewritePlugin> pathRewritePlugins) {
 
@@ -61,6 +100,12 @@ class JapaneseTokenizer implements Tokenizer {
         if (!oovProviderPlugins.isEmpty()) {
             defaultOovProvider = oovProviderPlugins.get(oovProviderPlugins.size() - 1);
         }
+        for (OovProviderPlugin plugin : oovProviderPlugins) {
+            if (plugin instanceof SimpleOovProviderPlugin) {
+                atomicRunOovProvider = (SimpleOovProviderPlugin) plugin;
+                break;
+            }
+        }
     }
 
     @Override
@@ -72,13 +117,34 @@ class JapaneseTokenizer implements Tokenizer {
         return tokenizeSentence(mode, input);
     }
 
+    @Override
+    public MorphemeList tokenize(Tokenizer.SplitMode mode, byte[] text, int offset, int length) {
+        if (length == 0) {
+            return MorphemeList.EMPTY;
+        }
+        UTF8InputText input = buildInputText(text, offset, length);
+        return tokenizeSentence(mode, input);
+    }
+
+    @Override
+    public MorphemeList tokenizeNormalized(Tokenizer.SplitMode mode, String text) {
+        if (text.isEmpty()) {
+            return MorphemeList.EMPTY;
+        }
+        UTF8InputTextBuilder builder = new UTF8InputTextBuilder(text, grammar);
+        setAtomicRuns(builder);
+        UTF8InputText input = dumpInputText(builder.build());
+        return tokenizeSentence(mode, input);
+    }
+
     @Override
     public Iterable<MorphemeList> tokenizeSentences(SplitMode mode, String text) {
         if (text.isEmpty()) {
             return Collections.emptyList();
         }
 
-        SentenceSplittingAnalysis analysis = new SentenceSplittingAnalysis(mode, this);
+        SentenceSplittingAnalysis<MorphemeList> analysis = new SentenceSplittingAnalysis<>(this,
+                (sentence, offset) -> tokenizeSentence(mode, sentence));
         int length = analysis.tokenizeBuffer(text);
         ArrayList<MorphemeList> result = analysis.result;
         int bos = analysis.bos;
@@ -99,7 +165,8 @@ class JapaneseTokenizer implements Tokenizer {
     @Override
     public Iterable<MorphemeList> tokenizeSentences(SplitMode mode, Reader reader) throws IOException {
         CharBuffer buffer = CharBuffer.allocate(SentenceDetector.DEFAULT_LIMIT);
-        SentenceSplittingAnalysis analysis = new SentenceSplittingAnalysis(mode, this);
+        SentenceSplittingAnalysis<MorphemeList> analysis = new SentenceSplittingAnalysis<>(this,
+                (sentence, offset) -> tokenizeSentence(mode, sentence));
 
         while (IOTools.readAsMuchAsCan(reader, buffer) > 0) {
             buffer.flip();
@@ -119,6 +186,61 @@ class JapaneseTokenizer implements Tokenizer {
         return sentences;
     }
 
+    @Override
+    public int[] tokenizeBoundaries(SplitMode mode, String text) {
+        if (text.isEmpty()) {
+            return new int[0];
+        }
+        UTF8InputText input = buildInputText(text);
+        return tokenizeSentenceBoundaries(mode, input, 0);
+    }
+
+    @Override
+    public SplitBoundaries tokenizeAllBoundaries(String text) {
+        SplitMode[] modes = SplitMode.values();
+        int[][] boundaries = new int[modes.length][];
+        if (text.isEmpty()) {
+            Arrays.fill(boundaries, new int[0]);
+            return new SplitBoundaries(boundaries);
+        }
+        UTF8InputText input = buildInputText(text);
+        updateLexicon();
+        List<LatticeNode> path = analyzeSentence(input);
+        for (SplitMode mode : modes) {
+            boundaries[mode.ordinal()] = pathToBoundaries(path, mode, input, 0);
+        }
+        return new SplitBoundaries(boundaries);
+    }
+
+    @Override
+    public Iterable<int[]> tokenizeSentenceBoundaries(SplitMode mode, String text) {
+        if (text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        SentenceSplittingAnalysis<int[]> analysis = new SentenceSplittingAnalysis<>(this,
+                (sentence, offset) -> tokenizeSentenceBoundaries(mode, sentence, offset));
+        int length = analysis.tokenizeBuffer(text);
+        ArrayList<int[]> result = analysis.result;
+        int bos = analysis.bos;
+        if (length < 0) {
+            int eos = analysis.input.getText().length();
+            if (bos != eos) {
+                UTF8InputText slice = analysis.input;
+                if (bos != 0) {
+                    slice = slice.slice(bos, eos);
+                }
+                result.add(tokenizeSentenceBoundaries(mode, slice, analysis.bosPosition()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setPreNormalized(boolean preNormalized) {
+        this.preNormalized = preNormalized;
+    }
+
     @Override
     public void setDumpOutput(PrintStream output) {
         dumpOutput = output;
@@ -137,11 +259,74 @@ class JapaneseTokenizer implements Tokenizer {
     }
 
     UTF8InputText buildInputText(CharSequence text) {
-        UTF8InputTextBuilder builder = new UTF8InputTextBuilder(text, grammar);
-        for (InputTextPlugin plugin : inputTextPlugins) {
-            plugin.rewrite(builder);
+        UTF8InputTextBuilder builder = rewriteInputText(text);
+        return dumpInputText(builder.build());
+    }
+
+    UTF8InputText buildInputText(byte[] bytes, int offset, int length) {
+        String text;
+        try {
+            text = utf8Decoder.reset().decode(ByteBuffer.wrap(bytes, offset, length)).toString();
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("invalid UTF-8 sequence", e);
+        }
+        UTF8InputTextBuilder builder = rewriteInputText(text);
+        return dumpInputText(builder.build(bytes, offset, length));
+    }
+
+    private UTF8InputTextBuilder rewriteInputText(CharSequence text) {
+        isShortInput = text.length() <= shortInputLength;
+        UTF8InputTextBuilder builder;
+        List<InputTextTransformer> transformers;
+        if (isShortInput) {
+            if (scratchBuilder == null) {
+                scratchBuilder = new UTF8InputTextBuilder(text, grammar);
+                scratchTransformers = new InputTextTransformer[inputTextPlugins.size()];
+            } else {
+                scratchBuilder.reset(text);
+            }
+            builder = scratchBuilder;
+            transformers = scratchTransformerList;
+            transformers.clear();
+        } else {
+            builder = new UTF8InputTextBuilder(text, grammar);
+            transformers = new ArrayList<>();
+        }
+        setAtomicRuns(builder);
+        if (preNormalized) {
+            return builder;
+        }
+
+        for (int i = 0; i < inputTextPlugins.size(); i++) {
+            InputTextPlugin plugin = inputTextPlugins.get(i);
+            if (plugin instanceof StreamingInputTextPlugin) {
+                transformers.add(newTransformer(i, (StreamingInputTextPlugin) plugin));
+            } else {
+                builder.transform(transformers);
+                transformers.clear();
+                plugin.rewrite(builder);
+            }
+        }
+        builder.transform(transformers);
+        return builder;
+    }
+
+    private void setAtomicRuns(UTF8InputTextBuilder builder) {
+        // the OOVs of the runs cannot be created without the provider
+        builder.setAtomicRuns(atomicRunCategories, atomicRunOovProvider == null ? 0 : atomicRunLength);
+    }
+
+    private InputTextTransformer newTransformer(int index, StreamingInputTextPlugin plugin) {
+        if (!isShortInput) {
+            return plugin.newTransformer();
+        }
+        if (scratchTransformers[index] == null) {
+            scratchTransformers[index] = plugin.newTransformer();
         }
-        UTF8InputText input = builder.build();
+        return scratchTransformers[index];
+    }
+
+    private UTF8InputText dumpInputText(UTF8InputText input) {
         if (dumpOutput != null) {
             dumpOutput.println("=== Input dump:");
             dumpOutput.println(input.getText());
@@ -155,6 +340,99 @@ class JapaneseTokenizer implements Tokenizer {
     }
 
     MorphemeList tokenizeSentence(Tokenizer.SplitMode mode, UTF8InputText input) {
+        updateLexicon();
+        List<LatticeNode> path = analyzeSentence(input);
+
+        if (mode != Tokenizer.SplitMode.C) {
+            path = splitPath(path, mode);
+        }
+
+        if (dumpOutput != null) {
+            dumpOutput.println("=== After rewriting:");
+            dumpPath(path);
+            dumpOutput.println("===");
+        }
+        if (jsonBuilder != null) {
+            jsonBuilder.add("rewrittenPath", pathToJson(path, lattice));
+        }
+
+        return new MorphemeList(input, grammar, lexicon, path, allowEmptyMorpheme, mode);
+    }
+
+    /**
+     * Tokenizes a sentence and returns only the boundaries of the morphemes. This
+     * does not decode {@link WordInfo} of the dictionary words, even when splitting
+     * them into A or B units.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @param input
+     *            the input of the sentence
+     * @param offset
+     *            the offset to add to each boundary
+     * @return the increasing offsets of the boundaries in the original text
+     */
+    int[] tokenizeSentenceBoundaries(Tokenizer.SplitMode mode, UTF8InputText input, int offset) {
+        updateLexicon();
+        List<LatticeNode> path = analyzeSentence(input);
+        return pathToBoundaries(path, mode, input, offset);
+    }
+
+    private int[] pathToBoundaries(List<LatticeNode> path, Tokenizer.SplitMode mode, UTF8InputText input,
+            int offset) {
+        numBoundaries = 0;
+        appendBoundary(offset + input.getOriginalIndex(0));
+        for (LatticeNode node : path) {
+            if (mode == Tokenizer.SplitMode.C) {
+                appendBoundary(offset + input.getOriginalIndex(node.getEnd()));
+            } else {
+                appendSplitBoundaries((LatticeNodeImpl) node, mode, input, offset);
+            }
+        }
+        return Arrays.copyOf(boundaries, numBoundaries);
+    }
+
+    private void appendSplitBoundaries(LatticeNodeImpl node, Tokenizer.SplitMode mode, UTF8InputText input,
+            int offset) {
+        int[] splits;
+        int numSplits;
+        if (node.oovText != null) {
+            // an OOV is not split, and its WordInfo is not created here
+            appendBoundary(offset + input.getOriginalIndex(node.getEnd()));
+            return;
+        } else if (node.hasExtraWordInfo()) {
+            WordInfo wi = node.getWordInfo();
+            splits = (mode == Tokenizer.SplitMode.A) ? wi.getAunitSplit() : wi.getBunitSplit();
+            numSplits = splits.length;
+        } else {
+            splits = splitBuffer;
+            numSplits = lexicon.readSplit(node.getWordId(), mode, splits);
+        }
+
+        if (numSplits < 2) {
+            appendBoundary(offset + input.getOriginalIndex(node.getEnd()));
+            return;
+        }
+
+        int end = node.getBegin();
+        for (int i = 0; i < numSplits; i++) {
+            end += lexicon.getHeadwordLength(splits[i]);
+            appendBoundary(offset + input.getOriginalIndex(end));
+        }
+    }
+
+    private void appendBoundary(int boundary) {
+        // zero-length morphemes do not make a new boundary
+        if (numBoundaries > 0 && boundaries[numBoundaries - 1] == boundary) {
+            return;
+        }
+        if (numBoundaries == boundaries.length) {
+            boundaries = Arrays.copyOf(boundaries, boundaries.length * 2);
+        }
+        boundaries[numBoundaries++] = boundary;
+    }
+
+    private List<LatticeNode> analyzeSentence(UTF8InputText input) {
         checkIfAlive();
         buildLattice(input);
 
@@ -176,49 +454,56 @@ class JapaneseTokenizer implements Tokenizer {
             jsonBuilder.add("bestPath", pathToJson(path, lattice));
         }
 
-        for (PathRewritePlugin plugin : pathRewritePlugins) {
-            plugin.rewrite(input, path, lattice);
+        // indexed, so that no iterator is allocated for each sentence
+        for (int i = 0; i < pathRewritePlugins.size(); i++) {
+            PathRewritePlugin plugin = pathRewritePlugins.get(i);
+            if (plugin.appliesTo(input)) {
+                plugin.rewrite(input, path, lattice);
+            }
         }
         lattice.clear();
 
-        if (mode != Tokenizer.SplitMode.C) {
-            path = splitPath(path, mode);
-        }
-
-        if (dumpOutput != null) {
-            dumpOutput.println("=== After rewriting:");
-            dumpPath(path);
-            dumpOutput.println("===");
-        }
-        if (jsonBuilder != null) {
-            jsonBuilder.add("rewrittenPath", pathToJson(path, lattice));
-        }
-
-        return new MorphemeList(input, grammar, lexicon, path, allowEmptyMorpheme, mode);
+        return path;
     }
 
     LatticeImpl buildLattice(UTF8InputText input) {
-        byte[] bytes = input.getByteText();
-        lattice.resize(bytes.length);
-        ArrayList<LatticeNodeImpl> unkNodes = new ArrayList<>(64);
-        WordLookup wordLookup = lexicon.makeLookup();
-        for (int byteBoundary = 0; byteBoundary < bytes.length; byteBoundary++) {
-            if (!input.canBow(byteBoundary) || !lattice.hasPreviousNode(byteBoundary)) {
+        byte[] bytes = input.getByteArray();
+        int offset = input.getByteOffset();
+        int length = input.getByteLength();
+        lattice.resize(length);
+        ArrayList<LatticeNodeImpl> unkNodes = this.unkNodes;
+        unkNodes.clear();
+        WordLookup wordLookup = this.wordLookup;
+        if (wordLookup == null) {
+            wordLookup = this.wordLookup = lexicon.makeLookup();
+        }
+        int numOovProviders = selectOovProviders(input);
+        OovProviderPlugin[] oovProviders = activeOovProviders;
+        for (int byteBoundary = 0; byteBoundary < length; byteBoundary++) {
+            // a slice may begin inside an atomic run
+            if ((byteBoundary > 0 && !input.canBow(byteBoundary)) || !lattice.hasPreviousNode(byteBoundary)) {
+                continue;
+            }
+            if (input.isAtomicRunStart(byteBoundary)) {
+                // an atomic run is one OOV, and there is no other boundary inside it
+                int end = byteBoundary + input.getWordCandidateLength(byteBoundary);
+                LatticeNodeImpl node = atomicRunOovProvider.createNode(input, byteBoundary, end);
+                lattice.insert(byteBoundary, end, node);
+                unkNodes.add(node);
                 continue;
             }
-            wordLookup.reset(bytes, byteBoundary, bytes.length);
             long wordMask = 0L;
+            wordLookup.reset(bytes, offset + byteBoundary, offset + length);
             while (wordLookup.next()) {
-                int end = wordLookup.getEndOffset();
-                if (end < bytes.length && !input.canBow(end)) {
+                int end = wordLookup.getEndOffset() - offset;
+                if (end < length && !input.canBow(end)) {
                     continue;
                 }
                 int numWords = wordLookup.getNumWords();
                 int[] wordIds = wordLookup.getWordsIds();
                 for (int word = 0; word < numWords; ++word) {
                     int wordId = wordIds[word];
-                    LatticeNodeImpl n = new LatticeNodeImpl(lexicon, lexicon.getLeftId(wordId),
-                            lexicon.getRightId(wordId), lexicon.getCost(wordId), wordId);
+                    LatticeNodeImpl n = new LatticeNodeImpl(lexicon, lexicon.getParameters(wordId), wordId);
                     lattice.insert(byteBoundary, end, n);
                     unkNodes.add(n);
                     wordMask = WordMask.addNth(wordMask, end - byteBoundary);
@@ -227,9 +512,9 @@ class JapaneseTokenizer implements Tokenizer {
             long wordMaskWithOov = wordMask;
 
             // OOV
-            if (!input.getCharCategoryTypes(byteBoundary).contains(CategoryType.NOOOVBOW)) {
-                for (OovProviderPlugin plugin : oovProviderPlugins) {
-                    wordMaskWithOov = provideOovs(plugin, input, unkNodes, byteBoundary, wordMaskWithOov);
+            if ((input.getCharCategoryTypeIds(byteBoundary) & CategoryType.NOOOVBOW.getId()) == 0) {
+                for (int i = 0; i < numOovProviders; i++) {
+                    wordMaskWithOov = provideOovs(oovProviders[i], input, unkNodes, byteBoundary, wordMaskWithOov);
                 }
             }
             if (wordMaskWithOov == 0 && defaultOovProvider != null) {
@@ -240,10 +525,36 @@ class JapaneseTokenizer implements Tokenizer {
             }
         }
         lattice.connectEosNode();
+        if (unkNodes.size() > MAX_RETAINED_NODES_CAPACITY) {
+            // do not keep the large buffer of an exceptionally long text
+            this.unkNodes = new ArrayList<>(INITIAL_NODES_CAPACITY);
+        } else {
+            unkNodes.clear();
+        }
 
         return lattice;
     }
 
+    /**
+     * Selects the OOV provider plugins which apply to the sentence. The array
+     * does not allocate an iterator at each boundary.
+     *
+     * @return the number of the selected plugins
+     */
+    private int selectOovProviders(UTF8InputText input) {
+        if (activeOovProviders == null) {
+            activeOovProviders = new OovProviderPlugin[oovProviderPlugins.size()];
+        }
+        int count = 0;
+        for (int i = 0; i < oovProviderPlugins.size(); i++) {
+            OovProviderPlugin plugin = oovProviderPlugins.get(i);
+            if (plugin.appliesTo(input)) {
+                activeOovProviders[count++] = plugin;
+            }
+        }
+        return count;
+    }
+
     private long provideOovs(OovProviderPlugin plugin, UTF8InputText input, ArrayList<LatticeNodeImpl> unkNodes,
             int boundary, long wordMask) {
         int initialSize = unkNodes.size();
@@ -263,7 +574,7 @@ class JapaneseTokenizer implements Tokenizer {
         List<LatticeNode> newPath = new ArrayList<>();
         for (LatticeNode node : path) {
             LatticeNodeImpl nodeImpl = (LatticeNodeImpl) node;
-            nodeImpl.appendSplitsTo(newPath, mode);
+            nodeImpl.appendSplitsTo(newPath, mode, splitBuffer);
         }
         return newPath;
     }
@@ -288,6 +599,23 @@ class JapaneseTokenizer implements Tokenizer {
         allowEmptyMorpheme = false;
     }
 
+    /**
+     * Switches to the latest lexicon of the dictionary and its parts of speech,
+     * which are used until the next sentence.
+     */
+    void updateLexicon() {
+        if (dictionary == null) {
+            return;
+        }
+        JapaneseDictionary.Snapshot latest = dictionary.snapshot;
+        // a closed dictionary has no lexicon, which is reported by checkIfAlive()
+        if (latest != null && latest.lexicon != lexicon) {
+            lexicon = latest.lexicon;
+            grammar = latest.grammar;
+            wordLookup = null;
+        }
+    }
+
     void checkIfAlive() {
         if (lexicon.isValid() && grammar.isValid()) {
             return;
@@ -64,8 +64,14 @@ class JoinKatakanaOovPlugin extends PathRewritePlugin {
         }
     }
 
+    @Override
+    public boolean appliesTo(InputText text) {
+        return (text.getCharCategoryTypeIdsInText() & CategoryType.KATAKANA.getId()) != 0;
+    }
+
     @Override
     public void rewrite(InputText text, List<LatticeNode> path, Lattice lattice) {
+        PathRewriteBuilder builder = new PathRewriteBuilder(path);
         for (int i = 0; i < path.size(); i++) {
             LatticeNode node = path.get(i);
             if ((node.isOOV() || isShorter(minLength, text, node)) && isKatakanaNode(text, node)) {
@@ -89,15 +95,18 @@ class JoinKatakanaOovPlugin extends PathRewritePlugin {
                     begin++;
                 }
                 if (end - begin > 1) {
-                    concatenateOov(path, begin, end, oovPosId, lattice);
-                    i = begin + 1;
+                    // the indices are not shifted until the replacements are applied,
+                    // and the node at end is not Katakana
+                    concatenateOov(builder, begin, end, oovPosId, lattice);
+                    i = end;
                 }
             }
         }
+        builder.applyReplacements();
     }
 
     boolean isKatakanaNode(InputText text, LatticeNode node) {
-        return getCharCategoryTypes(text, node).contains(CategoryType.KATAKANA);
+        return (getCharCategoryTypeIds(text, node) & CategoryType.KATAKANA.getId()) != 0;
     }
 
     boolean isShorter(int length, InputText text, LatticeNode node) {
@@ -105,6 +114,6 @@ class JoinKatakanaOovPlugin extends PathRewritePlugin {
     }
 
     boolean canOovBowNode(InputText text, LatticeNode node) {
-        return !text.getCharCategoryTypes(node.getBegin()).contains(CategoryType.NOOOVBOW);
+        return (text.getCharCategoryTypeIds(node.getBegin()) & CategoryType.NOOOVBOW.getId()) == 0;
     }
 }
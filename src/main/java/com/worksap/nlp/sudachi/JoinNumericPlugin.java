@@ -18,7 +18,6 @@ package com.worksap.nlp.sudachi;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 import com.worksap.nlp.sudachi.dictionary.CategoryType;
 import com.worksap.nlp.sudachi.dictionary.Grammar;
@@ -48,6 +47,7 @@ import com.worksap.nlp.sudachi.dictionary.Grammar;
 class JoinNumericPlugin extends PathRewritePlugin {
 
     static final List<String> NUMERIC_POS = Arrays.asList("名詞", "数詞", "*", "*", "*", "*");
+    private static final int NUMERIC_CATEGORIES = CategoryType.NUMERIC.getId() | CategoryType.KANJINUMERIC.getId();
 
     boolean enableNormalize;
     short numericPOSId;
@@ -58,19 +58,35 @@ class JoinNumericPlugin extends PathRewritePlugin {
         numericPOSId = grammar.getPartOfSpeechId(NUMERIC_POS);
     }
 
+    /**
+     * A sequence of numerics begins with a digit or a Kanji numeric, and the
+     * periods and commas alone are never concatenated.
+     */
+    @Override
+    public boolean appliesTo(InputText text) {
+        return (text.getCharCategoryTypeIdsInText() & NUMERIC_CATEGORIES) != 0;
+    }
+
     @Override
     public void rewrite(InputText text, List<LatticeNode> path, Lattice lattice) {
         int beginIndex = -1;
         boolean commaAsDigit = true;
         boolean periodAsDigit = true;
         NumericParser parser = new NumericParser();
+        PathRewriteBuilder builder = new PathRewriteBuilder(path);
 
         for (int i = 0; i < path.size(); i++) {
             LatticeNode node = path.get(i);
-            Set<CategoryType> types = getCharCategoryTypes(text, node);
-            String s = node.getWordInfo().getNormalizedForm();
-            if (types.contains(CategoryType.NUMERIC) || types.contains(CategoryType.KANJINUMERIC)
-                    || (periodAsDigit && s.equals(".")) || (commaAsDigit && s.equals(","))) {
+            // only the normalized forms of numerics are decoded
+            String s = null;
+            if ((getCharCategoryTypeIds(text, node) & NUMERIC_CATEGORIES) != 0) {
+                s = node.getWordInfo().getNormalizedForm();
+            } else if (periodAsDigit && node.normalizedFormEquals(".")) {
+                s = ".";
+            } else if (commaAsDigit && node.normalizedFormEquals(",")) {
+                s = ",";
+            }
+            if (s != null) {
 
                 if (beginIndex < 0) {
                     parser.clear();
@@ -95,23 +111,26 @@ class JoinNumericPlugin extends PathRewritePlugin {
                 }
             } else {
                 if (beginIndex >= 0) {
+                    // the indices are not shifted until the replacements are applied
                     if (parser.done()) {
-                        concat(path, beginIndex, i, lattice, parser);
-                        i = beginIndex + 1;
+                        if (!concat(builder, beginIndex, i, lattice, parser)) {
+                            i = beginIndex + 1;
+                        }
                     } else {
-                        String ss = path.get(i - 1).getWordInfo().getNormalizedForm();
-                        if ((parser.errorState == NumericParser.Error.COMMA && ss.equals(","))
-                                || (parser.errorState == NumericParser.Error.POINT && ss.equals("."))) {
-                            concat(path, beginIndex, i - 1, lattice, parser);
-                            i = beginIndex + 2;
+                        LatticeNode last = path.get(i - 1);
+                        if ((parser.errorState == NumericParser.Error.COMMA && last.normalizedFormEquals(","))
+                                || (parser.errorState == NumericParser.Error.POINT && last.normalizedFormEquals("."))) {
+                            if (!concat(builder, beginIndex, i - 1, lattice, parser)) {
+                                i = beginIndex + 2;
+                            }
                         }
                     }
                 }
                 beginIndex = -1;
-                if (!commaAsDigit && !s.equals(",")) {
+                if (!commaAsDigit && !node.normalizedFormEquals(",")) {
                     commaAsDigit = true;
                 }
-                if (!periodAsDigit && !s.equals(".")) {
+                if (!periodAsDigit && !node.normalizedFormEquals(".")) {
                     periodAsDigit = true;
                 }
             }
@@ -119,29 +138,34 @@ class JoinNumericPlugin extends PathRewritePlugin {
 
         if (beginIndex >= 0) {
             if (parser.done()) {
-                concat(path, beginIndex, path.size(), lattice, parser);
+                concat(builder, beginIndex, path.size(), lattice, parser);
             } else {
-                String ss = path.get(path.size() - 1).getWordInfo().getNormalizedForm();
-                if ((parser.errorState == NumericParser.Error.COMMA && ss.equals(","))
-                        || (parser.errorState == NumericParser.Error.POINT && ss.equals("."))) {
-                    concat(path, beginIndex, path.size() - 1, lattice, parser);
+                LatticeNode last = path.get(path.size() - 1);
+                if ((parser.errorState == NumericParser.Error.COMMA && last.normalizedFormEquals(","))
+                        || (parser.errorState == NumericParser.Error.POINT && last.normalizedFormEquals("."))) {
+                    concat(builder, beginIndex, path.size() - 1, lattice, parser);
                 }
             }
         }
+        builder.applyReplacements();
     }
 
-    private void concat(List<LatticeNode> path, int begin, int end, Lattice lattice, NumericParser parser) {
-        if (path.get(begin).getWordInfo().getPOSId() != numericPOSId)
-            return;
+    private boolean concat(PathRewriteBuilder builder, int begin, int end, Lattice lattice, NumericParser parser) {
+        List<LatticeNode> path = builder.getPath();
+        if (path.get(begin).getPOSId() != numericPOSId)
+            return false;
         if (enableNormalize) {
             String normalizedForm = parser.getNormalized();
-            if (end - begin > 1 || !normalizedForm.equals(path.get(begin).getWordInfo().getNormalizedForm())) {
-                concatenate(path, begin, end, lattice, normalizedForm);
+            if (end - begin > 1 || !path.get(begin).normalizedFormEquals(normalizedForm)) {
+                concatenate(builder, begin, end, lattice, normalizedForm);
+                return true;
             }
         } else {
             if (end - begin > 1) {
-                concatenate(path, begin, end, lattice, null);
+                concatenate(builder, begin, end, lattice, null);
+                return true;
             }
         }
+        return false;
     }
 }
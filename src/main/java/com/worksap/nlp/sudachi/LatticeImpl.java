@@ -18,7 +18,6 @@ package com.worksap.nlp.sudachi;
 
 import java.io.PrintStream;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
@@ -29,6 +28,14 @@ import com.worksap.nlp.sudachi.dictionary.Connection;
 import com.worksap.nlp.sudachi.dictionary.Grammar;
 import com.worksap.nlp.sudachi.dictionary.WordInfo;
 
+/**
+ * The lattice of a sentence.
+ *
+ * <p>
+ * The nodes are stored in the lists of the nodes with the same end. Each list
+ * is sorted by the beginnings of the nodes, so the nodes with the same range
+ * are found by binary search.
+ */
 class LatticeImpl implements Lattice {
 
     private final ArrayList<ArrayList<LatticeNodeImpl>> endLists;
@@ -62,9 +69,15 @@ class LatticeImpl implements Lattice {
         }
         this.size = size;
 
-        eosNode = new LatticeNodeImpl();
-        eosNode.setParameter(eosParams[0], eosParams[1], eosParams[2]);
+        // the EOS node is not a part of the path, so it is reused
+        if (eosNode == null) {
+            eosNode = new LatticeNodeImpl();
+            eosNode.setParameter(eosParams[0], eosParams[1], eosParams[2]);
+        }
         eosNode.begin = eosNode.end = size;
+        eosNode.totalCost = 0;
+        eosNode.bestPreviousNode = null;
+        eosNode.isConnectedToBOS = false;
     }
 
     void clear() {
@@ -72,7 +85,6 @@ class LatticeImpl implements Lattice {
             endLists.get(i).clear();
         }
         size = 0;
-        eosNode = null;
     }
 
     void expand(int newSize) {
@@ -90,19 +102,77 @@ class LatticeImpl implements Lattice {
 
     @Override
     public List<LatticeNodeImpl> getNodes(int begin, int end) {
-        return endLists.get(end).stream().filter(n -> (n.getBegin() == begin)).collect(Collectors.toList());
+        ArrayList<LatticeNodeImpl> nodes = endLists.get(end);
+        int from = lowerBound(nodes, begin);
+        int to = from;
+        while (to < nodes.size() && nodes.get(to).begin == begin) {
+            to++;
+        }
+        if (from == to) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(nodes.subList(from, to));
     }
 
     @Override
     public Optional<LatticeNodeImpl> getMinimumNode(int begin, int end) {
-        return endLists.get(end).stream().filter(n -> (n.getBegin() == begin))
-                .min(Comparator.comparingInt(l -> l.cost));
+        return Optional.ofNullable(findMinimumNode(begin, end));
+    }
+
+    /**
+     * Returns the node which has the minimum cost in the nodes with the specified
+     * range. If there are several ones, returns the first inserted one.
+     *
+     * @param begin
+     *            the index to the first position in the input text
+     * @param end
+     *            the index to after the last position in the input text
+     * @return the node, or {@code null} if there is no node
+     */
+    LatticeNodeImpl findMinimumNode(int begin, int end) {
+        ArrayList<LatticeNodeImpl> nodes = endLists.get(end);
+        LatticeNodeImpl minimum = null;
+        for (int i = lowerBound(nodes, begin); i < nodes.size(); i++) {
+            LatticeNodeImpl node = nodes.get(i);
+            if (node.begin != begin) {
+                break;
+            }
+            if (minimum == null || node.cost < minimum.cost) {
+                minimum = node;
+            }
+        }
+        return minimum;
+    }
+
+    /**
+     * Returns the index of the first node which begins at or after the specified
+     * index.
+     */
+    private static int lowerBound(ArrayList<LatticeNodeImpl> nodes, int begin) {
+        int low = 0;
+        int high = nodes.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (nodes.get(mid).begin < begin) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
     }
 
     @Override
     public void insert(int begin, int end, LatticeNode node) {
         LatticeNodeImpl n = (LatticeNodeImpl) node;
-        endLists.get(end).add(n);
+        ArrayList<LatticeNodeImpl> nodes = endLists.get(end);
+        int size = nodes.size();
+        // the nodes are usually inserted in the order of their beginnings
+        if (size == 0 || nodes.get(size - 1).begin <= begin) {
+            nodes.add(n);
+        } else {
+            nodes.add(lowerBound(nodes, begin + 1), n);
+        }
         n.begin = begin;
         n.end = end;
 
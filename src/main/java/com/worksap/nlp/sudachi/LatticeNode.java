@@ -94,6 +94,37 @@ public interface LatticeNode {
      */
     public WordInfo getWordInfo();
 
+    /**
+     * Returns the ID of the part of speech of the node. The result is the same as
+     * {@code getWordInfo().getPOSId()}.
+     *
+     * <p>
+     * Implementations may override this to avoid decoding the whole
+     * {@link WordInfo}.
+     *
+     * @return the ID of the part of speech
+     */
+    default short getPOSId() {
+        return getWordInfo().getPOSId();
+    }
+
+    /**
+     * Returns whether the normalized form of the node is equal to the specified
+     * string. The result is the same as
+     * {@code getWordInfo().getNormalizedForm().contentEquals(form)}.
+     *
+     * <p>
+     * Implementations may override this to avoid decoding the whole
+     * {@link WordInfo}.
+     *
+     * @param form
+     *            the string to compare with
+     * @return {@code true} if the normalized form is equal to {@code form}
+     */
+    default boolean normalizedFormEquals(CharSequence form) {
+        return getWordInfo().getNormalizedForm().contentEquals(form);
+    }
+
     /**
      * Sets the morpheme information to the node.
      *
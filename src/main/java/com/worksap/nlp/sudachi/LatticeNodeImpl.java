@@ -18,6 +18,7 @@ package com.worksap.nlp.sudachi;
 
 import com.worksap.nlp.sudachi.dictionary.Lexicon;
 import com.worksap.nlp.sudachi.dictionary.WordInfo;
+import com.worksap.nlp.sudachi.dictionary.WordParameters;
 
 import java.util.List;
 
@@ -39,11 +40,16 @@ public class LatticeNodeImpl implements LatticeNode {
     boolean isDefined;
     boolean isOOV;
     WordInfo extraWordInfo;
+    /** the text of the OOV whose {@link WordInfo} is created at the first use */
+    InputText oovText;
+    short oovPosId;
 
     Lexicon lexicon;
 
     static final String NULL_SURFACE = "(null)";
     private static final short ZERO = (short) 0;
+    /** the maximum number of the word IDs in a split */
+    static final int MAX_SPLIT_LENGTH = 256;
     static final WordInfo UNDEFINED_WORDINFO = new WordInfo(NULL_SURFACE, ZERO, (short) -1, NULL_SURFACE, NULL_SURFACE,
             NULL_SURFACE);
 
@@ -56,6 +62,15 @@ public class LatticeNodeImpl implements LatticeNode {
         this.isDefined = true;
     }
 
+    LatticeNodeImpl(Lexicon lexicon, long parameters, int wordId) {
+        this.lexicon = lexicon;
+        this.leftId = WordParameters.leftId(parameters);
+        this.rightId = WordParameters.rightId(parameters);
+        this.cost = WordParameters.cost(parameters);
+        this.wordId = wordId;
+        this.isDefined = true;
+    }
+
     LatticeNodeImpl() {
         isDefined = false;
     }
@@ -101,15 +116,103 @@ public class LatticeNodeImpl implements LatticeNode {
         if (extraWordInfo != null) {
             return extraWordInfo;
         }
+        if (oovText != null) {
+            String s = oovText.getSubstring(begin, end);
+            // kept after creating it, so that a racing reader only creates an equal one
+            extraWordInfo = new WordInfo(s, (short) (end - begin), oovPosId, s, s, "");
+            return extraWordInfo;
+        }
         return lexicon.getWordInfo(wordId);
     }
 
+    @Override
+    public short getPOSId() {
+        if (!isDefined) {
+            return UNDEFINED_WORDINFO.getPOSId();
+        }
+        if (extraWordInfo != null) {
+            return extraWordInfo.getPOSId();
+        }
+        if (oovText != null) {
+            return oovPosId;
+        }
+        return lexicon.getPOSId(wordId);
+    }
+
+    @Override
+    public boolean normalizedFormEquals(CharSequence form) {
+        if (!isDefined || extraWordInfo != null) {
+            return getWordInfo().getNormalizedForm().contentEquals(form);
+        }
+        if (oovText != null) {
+            // the normalized form of a lazy OOV is its surface, whose length in
+            // UTF-8 is the length of the node
+            if (utf8Length(form) != end - begin) {
+                return false;
+            }
+            return getWordInfo().getNormalizedForm().contentEquals(form);
+        }
+        return lexicon.normalizedFormEquals(wordId, form);
+    }
+
+    private static int utf8Length(CharSequence str) {
+        int length = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                // a surrogate pair is 4 bytes in total
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
     @Override
     public void setWordInfo(WordInfo wordInfo) {
         extraWordInfo = wordInfo;
+        oovText = null;
         isDefined = true;
     }
 
+    /**
+     * Sets the range of this OOV node and the part of speech of its
+     * {@link WordInfo}, which is created from the text at the first use. Most OOV
+     * candidates are not on the best path, so their surfaces are never needed.
+     *
+     * @param text
+     *            the input text
+     * @param begin
+     *            the beginning index of the OOV in the text
+     * @param end
+     *            the ending index of the OOV in the text
+     * @param posId
+     *            the ID of the part of speech
+     */
+    void setLazyWordInfo(InputText text, int begin, int end, short posId) {
+        this.begin = begin;
+        this.end = end;
+        oovText = text;
+        oovPosId = posId;
+        extraWordInfo = null;
+        isDefined = true;
+    }
+
+    /**
+     * Returns whether the {@link WordInfo} of this node is not the one in the
+     * dictionary.
+     *
+     * @return {@code true} if this node has its own {@link WordInfo}
+     */
+    boolean hasExtraWordInfo() {
+        return extraWordInfo != null || oovText != null;
+    }
+
     @Override
     public int getPathCost() {
         return cost;
@@ -122,7 +225,7 @@ public class LatticeNodeImpl implements LatticeNode {
 
     @Override
     public int getDictionaryId() {
-        if (!isDefined || extraWordInfo != null) {
+        if (!isDefined || hasExtraWordInfo()) {
             return -1;
         }
         return WordId.dic(wordId);
@@ -138,21 +241,32 @@ public class LatticeNodeImpl implements LatticeNode {
                 cost);
     }
 
-    /* internal */ void appendSplitsTo(List<LatticeNode> result, Tokenizer.SplitMode mode) {
-        if (mode == Tokenizer.SplitMode.A) {
-            appendSplitsTo(result, getWordInfo().getAunitSplit());
-        } else if (mode == Tokenizer.SplitMode.B) {
-            appendSplitsTo(result, getWordInfo().getBunitSplit());
-        } else {
+    /**
+     * Appends the nodes of the split of this node into {@code result}.
+     *
+     * <p>
+     * The split of a dictionary word is read into {@code buffer} without decoding
+     * its {@link WordInfo}.
+     */
+    /* internal */ void appendSplitsTo(List<LatticeNode> result, Tokenizer.SplitMode mode, int[] buffer) {
+        if (mode == Tokenizer.SplitMode.C) {
             result.add(this);
+            return;
+        }
+        if (!isDefined || hasExtraWordInfo()) {
+            WordInfo wi = getWordInfo();
+            int[] splitsId = (mode == Tokenizer.SplitMode.A) ? wi.getAunitSplit() : wi.getBunitSplit();
+            appendSplitsTo(result, splitsId, splitsId.length);
+        } else {
+            appendSplitsTo(result, buffer, lexicon.readSplit(wordId, mode, buffer));
         }
     }
 
-    private void appendSplitsTo(List<LatticeNode> result, int[] splitsId) {
-        if (splitsId.length == 0) {
+    private void appendSplitsTo(List<LatticeNode> result, int[] splitsId, int length) {
+        if (length == 0) {
             result.add(this);
             return;
-        } else if (splitsId.length == 1) {
+        } else if (length == 1) {
             int wid = splitsId[0];
             if (wid == getWordId()) {
                 result.add(this);
@@ -167,10 +281,11 @@ public class LatticeNodeImpl implements LatticeNode {
         }
 
         int offset = getBegin();
-        for (int wid : splitsId) {
+        for (int i = 0; i < length; i++) {
+            int wid = splitsId[i];
             LatticeNodeImpl n = new LatticeNodeImpl(lexicon, ZERO, ZERO, ZERO, wid);
             n.begin = offset;
-            offset += n.getWordInfo().getLength();
+            offset += lexicon.getHeadwordLength(wid);
             n.end = offset;
             result.add(n);
         }
@@ -48,6 +48,10 @@ import java.util.regex.Pattern;
  *
  * {@code charDef} is the file path of the definition of OOV insertion behavior.
  * {@code unkDef} is the file path of the definition of OOV informations.
+ * {@code maxGroupingSize} is the maximum number of the characters of a grouped
+ * OOV, as the option of MeCab with the same name. The grouped OOVs are not
+ * provided where the rest of the run of the same character category is longer
+ * than it. The default is {@code 0}, which means no limit.
  *
  * These files are compatible with MeCab. But the definitions of character
  * categories in {@code charDef} are ignored and this plugin uses the ones
@@ -69,8 +73,11 @@ class MeCabOovProviderPlugin extends OovProviderPlugin {
         short posId;
     }
 
+    private static final CategoryType[] CATEGORY_TYPES = CategoryType.values();
+
     Map<CategoryType, CategoryInfo> categories = new EnumMap<>(CategoryType.class);
     Map<CategoryType, List<OOV>> oovList = new EnumMap<>(CategoryType.class);
+    int maxGroupingSize;
 
     @Override
     public void setUp(Grammar grammar) throws IOException {
@@ -78,55 +85,70 @@ class MeCabOovProviderPlugin extends OovProviderPlugin {
         readCharacterProperty(charDef);
         Config.Resource<Object> unkDef = settings.getResource("unkDef");
         readOOV(unkDef, grammar, settings.getString(USER_POS, USER_POS_FORBID));
+        maxGroupingSize = settings.getInt("maxGroupingSize", 0);
+        if (maxGroupingSize < 0) {
+            throw new IllegalArgumentException("maxGroupingSize must be non-negative: " + maxGroupingSize);
+        }
     }
 
     @Override
     public int provideOOV(InputText inputText, int offset, long otherWords, List<LatticeNodeImpl> nodes) {
+        // the rest of the run of the same category, which is computed once for the
+        // sentence
         int length = inputText.getCharCategoryContinuousLength(offset);
+        if (length <= 0) {
+            return 0;
+        }
+        int typeIds = inputText.getCharCategoryTypeIds(offset);
+        int runLength = -1;
         int added = 0;
-        if (length > 0) {
-            for (CategoryType type : inputText.getCharCategoryTypes(offset)) {
-                CategoryInfo cinfo = categories.get(type);
-                if (cinfo == null) {
-                    continue;
-                }
-                int llength = length;
-                List<OOV> oovs = oovList.get(cinfo.type);
-                if (oovs == null) {
-                    continue;
+        for (CategoryType type : CATEGORY_TYPES) {
+            if ((typeIds & type.getId()) == 0) {
+                continue;
+            }
+            CategoryInfo cinfo = categories.get(type);
+            if (cinfo == null) {
+                continue;
+            }
+            List<OOV> oovs = oovList.get(cinfo.type);
+            if (oovs == null || !(cinfo.isInvoke || otherWords == 0)) {
+                continue;
+            }
+            int llength = length;
+            if (cinfo.isGroup) {
+                if (maxGroupingSize > 0 && runLength < 0) {
+                    runLength = inputText.codePointCount(offset, offset + length);
                 }
-                if (cinfo.isGroup && (cinfo.isInvoke || otherWords == 0)) {
-                    String s = inputText.getSubstring(offset, offset + length);
-                    for (OOV oov : oovs) {
-                        nodes.add(getOOVNode(s, oov, length));
-                        added += 1;
-                    }
+                if (maxGroupingSize == 0 || runLength <= maxGroupingSize) {
+                    added += addOOVNodes(inputText, offset, length, oovs, nodes);
                     llength -= 1;
                 }
-                if (cinfo.isInvoke || otherWords == 0) {
-                    for (int i = 1; i <= cinfo.length; i++) {
-                        int sublength = inputText.getCodePointsOffsetLength(offset, i);
-                        if (sublength > llength) {
-                            break;
-                        }
-                        String s = inputText.getSubstring(offset, offset + sublength);
-                        for (OOV oov : oovs) {
-                            nodes.add(getOOVNode(s, oov, sublength));
-                            added += 1;
-                        }
-                    }
+            }
+            // the candidates per run are at most the number of the characters times
+            // cinfo.length
+            int sublength = 0;
+            for (int i = 1; i <= cinfo.length; i++) {
+                sublength += inputText.getCodePointsOffsetLength(offset + sublength, 1);
+                if (sublength > llength) {
+                    break;
                 }
+                added += addOOVNodes(inputText, offset, sublength, oovs, nodes);
             }
         }
         return added;
     }
 
-    LatticeNodeImpl getOOVNode(String text, OOV oov, int length) {
-        LatticeNodeImpl node = createNode();
-        node.setParameter(oov.leftId, oov.rightId, oov.cost);
-        WordInfo info = new WordInfo(text, (short) length, oov.posId, text, text, "");
-        node.setWordInfo(info);
-        return node;
+    private int addOOVNodes(InputText inputText, int offset, int length, List<OOV> oovs,
+            List<LatticeNodeImpl> nodes) {
+        // noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < oovs.size(); i++) {
+            nodes.add(getOOVNode(inputText, oovs.get(i), offset, length));
+        }
+        return oovs.size();
+    }
+
+    LatticeNodeImpl getOOVNode(InputText inputText, OOV oov, int offset, int length) {
+        return createNode(inputText, offset, offset + length, oov.leftId, oov.rightId, oov.cost, oov.posId);
     }
 
     private static final Pattern PATTERN_SPACES = Pattern.compile("\\s+");
@@ -18,6 +18,7 @@ package com.worksap.nlp.sudachi;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -79,12 +80,63 @@ public class MorphemeList extends AbstractList<Morpheme> {
         return end;
     }
 
+    /**
+     * Returns the start offset of the morpheme in the UTF-8 representation of the
+     * input text.
+     *
+     * @param index
+     *            the index of the morpheme
+     * @return the offset of the first byte of the morpheme
+     * @see Morpheme#begin()
+     */
+    public int getByteBegin(int index) {
+        return ((UTF8InputText) inputText).getOriginalByteIndex(getBegin(index));
+    }
+
+    /**
+     * Returns the offset after the last byte of the morpheme in the UTF-8
+     * representation of the input text.
+     *
+     * @param index
+     *            the index of the morpheme
+     * @return the offset after the last byte of the morpheme
+     * @see Morpheme#end()
+     */
+    public int getByteEnd(int index) {
+        return ((UTF8InputText) inputText).getOriginalByteIndex(getEnd(index));
+    }
+
     String getSurface(int index) {
         int begin = getBegin(index);
         int end = getEnd(index);
         return inputText.getOriginalText().substring(begin, end);
     }
 
+    /**
+     * Returns the boundaries of the morphemes in the same form as
+     * {@link Tokenizer#tokenizeBoundaries(Tokenizer.SplitMode, String)}.
+     *
+     * @param offset
+     *            the offset added to the boundaries
+     * @return the increasing offsets of the boundaries
+     */
+    int[] getBoundaries(int offset) {
+        int size = size();
+        if (size == 0) {
+            return new int[0];
+        }
+        int[] boundaries = new int[size + 1];
+        int length = 0;
+        boundaries[length++] = offset + getBegin(0);
+        for (int i = 0; i < size; i++) {
+            int end = offset + getEnd(i);
+            if (end != boundaries[length - 1]) {
+                boundaries[length++] = end;
+            }
+        }
+        return Arrays.copyOf(boundaries, length);
+    }
+
     WordInfo getWordInfo(int index) {
         return path.get(index).getWordInfo();
     }
@@ -92,7 +144,7 @@ public class MorphemeList extends AbstractList<Morpheme> {
     List<Morpheme> split(Tokenizer.SplitMode mode, int index) {
         List<LatticeNode> nodes = new ArrayList<>();
         LatticeNodeImpl node = (LatticeNodeImpl) path.get(index);
-        node.appendSplitsTo(nodes, mode);
+        node.appendSplitsTo(nodes, mode, new int[LatticeNodeImpl.MAX_SPLIT_LENGTH]);
         return new MorphemeList(inputText, grammar, lexicon, nodes, allowEmptyMorpheme, mode);
     }
 
@@ -111,10 +163,11 @@ public class MorphemeList extends AbstractList<Morpheme> {
         }
 
         List<LatticeNode> nodes = new ArrayList<>();
-
+        // the lists may be shared between threads, so the buffer is not kept
+        int[] buffer = new int[LatticeNodeImpl.MAX_SPLIT_LENGTH];
         for (LatticeNode node : path) {
             LatticeNodeImpl nodeImpl = (LatticeNodeImpl) node;
-            nodeImpl.appendSplitsTo(nodes, mode);
+            nodeImpl.appendSplitsTo(nodes, mode, buffer);
         }
 
         return new MorphemeList(inputText, grammar, lexicon, nodes, allowEmptyMorpheme, mode);
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.Arrays;
+
+/**
+ * The mapping between the offsets in the UTF-8 bytes, the modified text and
+ * the original text of {@link UTF8InputText}.
+ *
+ * <p>
+ * The mapping is stored as runs instead of one entry per byte. The bytes are
+ * split into runs of code points with the same length in UTF-8, and the
+ * offsets of the modified text are split into runs in which the offsets of the
+ * original text increase one by one or stay the same. The number of the
+ * former runs is proportional to the changes of the scripts, and that of the
+ * latter is proportional to the number of the edits by the input text
+ * plugins. If the text is not edited, the mapping to the original text is the
+ * identity and no run is stored for it. In the identity mapping, as in the
+ * mapping of {@link UTF8InputTextBuilder}, the low surrogate of a pair is
+ * mapped to the end of the pair.
+ */
+final class OffsetMapping {
+
+    /** the first byte of each run, followed by the length of the bytes */
+    private final int[] byteStarts;
+    /** the first offset of the modified text of each run, followed by its length */
+    private final int[] charStarts;
+    /** the length in UTF-8 of the code points of each run */
+    private final byte[] byteWidths;
+    private final int numByteRuns;
+    private final boolean hasSurrogates;
+
+    /** the first offset of the modified text of each run, or null if identity */
+    private final int[] modifiedStarts;
+    /** the offset of the original text mapped from the first one of each run */
+    private final int[] originalStarts;
+    /** whether the offsets of the original text stay the same in each run */
+    private final boolean[] constants;
+    private final int numModifiedRuns;
+
+    private OffsetMapping(int[] byteStarts, int[] charStarts, byte[] byteWidths, int numByteRuns,
+            int[] modifiedStarts, int[] originalStarts, boolean[] constants, int numModifiedRuns) {
+        this.byteStarts = byteStarts;
+        this.charStarts = charStarts;
+        this.byteWidths = byteWidths;
+        this.numByteRuns = numByteRuns;
+        boolean hasSurrogates = false;
+        for (int i = 0; i < numByteRuns; i++) {
+            hasSurrogates |= byteWidths[i] == 4;
+        }
+        this.hasSurrogates = hasSurrogates;
+        this.modifiedStarts = modifiedStarts;
+        this.originalStarts = originalStarts;
+        this.constants = constants;
+        this.numModifiedRuns = numModifiedRuns;
+    }
+
+    /**
+     * Builds the mapping.
+     *
+     * @param text
+     *            the modified text
+     * @param modifiedToOriginal
+     *            the offsets of the original text mapped from each offset of the
+     *            modified text and its end, or {@code null} if the text is not
+     *            edited
+     * @return the mapping
+     */
+    static OffsetMapping build(CharSequence text, int[] modifiedToOriginal) {
+        int length = text.length();
+
+        int[] byteStarts = new int[8];
+        int[] charStarts = new int[8];
+        byte[] byteWidths = new byte[8];
+        int numByteRuns = 0;
+        int position = 0;
+        for (int i = 0; i < length;) {
+            int cp = Character.codePointAt(text, i);
+            int width = utf8ByteLength(cp);
+            if (numByteRuns == 0 || byteWidths[numByteRuns - 1] != width) {
+                if (numByteRuns + 1 >= byteStarts.length) {
+                    byteStarts = Arrays.copyOf(byteStarts, byteStarts.length * 2);
+                    charStarts = Arrays.copyOf(charStarts, charStarts.length * 2);
+                    byteWidths = Arrays.copyOf(byteWidths, byteWidths.length * 2);
+                }
+                byteStarts[numByteRuns] = position;
+                charStarts[numByteRuns] = i;
+                byteWidths[numByteRuns] = (byte) width;
+                numByteRuns++;
+            }
+            position += width;
+            i += Character.charCount(cp);
+        }
+        byteStarts[numByteRuns] = position;
+        charStarts[numByteRuns] = length;
+
+        if (modifiedToOriginal == null || isIdentity(text, modifiedToOriginal)) {
+            return new OffsetMapping(byteStarts, charStarts, byteWidths, numByteRuns, null, null, null, 0);
+        }
+
+        int[] modifiedStarts = new int[8];
+        int[] originalStarts = new int[8];
+        boolean[] constants = new boolean[8];
+        int numModifiedRuns = 0;
+        for (int i = 0; i <= length; i++) {
+            int original = modifiedToOriginal[i];
+            if (numModifiedRuns > 0) {
+                int run = numModifiedRuns - 1;
+                int delta = original - modifiedToOriginal[i - 1];
+                if (modifiedStarts[run] == i - 1 && (delta == 0 || delta == 1)) {
+                    constants[run] = delta == 0;
+                    continue;
+                }
+                if (delta == (constants[run] ? 0 : 1)) {
+                    continue;
+                }
+            }
+            if (numModifiedRuns == modifiedStarts.length) {
+                modifiedStarts = Arrays.copyOf(modifiedStarts, modifiedStarts.length * 2);
+                originalStarts = Arrays.copyOf(originalStarts, originalStarts.length * 2);
+                constants = Arrays.copyOf(constants, constants.length * 2);
+            }
+            modifiedStarts[numModifiedRuns] = i;
+            originalStarts[numModifiedRuns] = original;
+            constants[numModifiedRuns] = false;
+            numModifiedRuns++;
+        }
+        return new OffsetMapping(byteStarts, charStarts, byteWidths, numByteRuns, modifiedStarts, originalStarts,
+                constants, numModifiedRuns);
+    }
+
+    private static boolean isIdentity(CharSequence text, int[] modifiedToOriginal) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            int expected = isLowSurrogateOfPair(text, i) ? i + 1 : i;
+            if (modifiedToOriginal[i] != expected) {
+                return false;
+            }
+        }
+        return modifiedToOriginal[length] == length;
+    }
+
+    private static boolean isLowSurrogateOfPair(CharSequence text, int index) {
+        return index > 0 && Character.isLowSurrogate(text.charAt(index))
+                && Character.isHighSurrogate(text.charAt(index - 1));
+    }
+
+    /**
+     * Returns whether the offsets of the modified text are the same as those of
+     * the original text.
+     *
+     * @return {@code true} if the mapping to the original text is the identity
+     */
+    boolean isIdentity() {
+        return modifiedStarts == null;
+    }
+
+    /**
+     * Returns the length of the bytes.
+     *
+     * @return the length of the bytes
+     */
+    int byteLength() {
+        return byteStarts[numByteRuns];
+    }
+
+    /**
+     * Returns the offset of the modified text of the character which contains
+     * the specified byte.
+     *
+     * @param index
+     *            the index of the bytes
+     * @return the offset of the modified text
+     */
+    int byteToModified(int index) {
+        if (index >= byteStarts[numByteRuns]) {
+            return charStarts[numByteRuns];
+        }
+        int run = findRun(byteStarts, numByteRuns, index);
+        int width = byteWidths[run];
+        int chars = (index - byteStarts[run]) / width;
+        return charStarts[run] + ((width == 4) ? chars * 2 : chars);
+    }
+
+    /**
+     * Returns the index of the first byte of the character which begins at or
+     * after the specified offset of the modified text.
+     *
+     * @param index
+     *            the offset of the modified text
+     * @return the index of the bytes
+     */
+    int modifiedToByte(int index) {
+        if (index >= charStarts[numByteRuns]) {
+            return byteStarts[numByteRuns];
+        }
+        int run = findRun(charStarts, numByteRuns, index);
+        int width = byteWidths[run];
+        int chars = index - charStarts[run];
+        if (width == 4) {
+            chars = (chars + 1) / 2;
+        }
+        return byteStarts[run] + chars * width;
+    }
+
+    /**
+     * Returns the offset of the original text mapped from the specified offset
+     * of the modified text.
+     *
+     * @param index
+     *            the offset of the modified text
+     * @return the offset of the original text
+     */
+    int modifiedToOriginal(int index) {
+        if (modifiedStarts == null) {
+            return identity(index);
+        }
+        int run = findRun(modifiedStarts, numModifiedRuns, index);
+        return constants[run] ? originalStarts[run] : originalStarts[run] + index - modifiedStarts[run];
+    }
+
+    /**
+     * Returns the offset of the original text mapped from the character which
+     * contains the specified byte.
+     *
+     * @param index
+     *            the index of the bytes
+     * @return the offset of the original text
+     */
+    int byteToOriginal(int index) {
+        return modifiedToOriginal(byteToModified(index));
+    }
+
+    private int identity(int index) {
+        if (!hasSurrogates || index >= charStarts[numByteRuns]) {
+            return index;
+        }
+        int run = findRun(charStarts, numByteRuns, index);
+        boolean isLowSurrogate = byteWidths[run] == 4 && ((index - charStarts[run]) & 1) == 1;
+        return isLowSurrogate ? index + 1 : index;
+    }
+
+    private static int findRun(int[] starts, int size, int index) {
+        if (size == 1 || index < starts[1]) {
+            return 0;
+        }
+        int run = Arrays.binarySearch(starts, 1, size, index);
+        return (run >= 0) ? run : -run - 2;
+    }
+
+    static int utf8ByteLength(int cp) {
+        if (cp < 0) {
+            return 0;
+        } else if (cp <= 0x7F) {
+            return 1;
+        } else if (cp <= 0x7FF) {
+            return 2;
+        } else if (cp <= 0xFFFF) {
+            return 3;
+        } else if (cp <= 0x10FFFF) {
+            return 4;
+        } else {
+            return 0;
+        }
+    }
+}
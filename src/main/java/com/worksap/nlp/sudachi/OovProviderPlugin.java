@@ -62,7 +62,9 @@ public abstract class OovProviderPlugin extends Plugin {
     /**
      * Provides the nodes of OOV morphemes.
      *
-     * To create the new node you can use {@link #createNode}.
+     * To create the new node you can use {@link #createNode}. The nodes created
+     * by {@link #createNode(InputText, int, int, short, short, short, short)} do
+     * not build their surfaces until they are requested.
      *
      * @param inputText
      *            the input text
@@ -81,13 +83,34 @@ public abstract class OovProviderPlugin extends Plugin {
      */
     public abstract int provideOOV(InputText inputText, int offset, long otherWords, List<LatticeNodeImpl> result);
 
+    /**
+     * Returns whether this plugin may provide OOVs in the specified text.
+     * {@link Tokenizer} does not call {@link #provideOOV} for the text if this
+     * method returns {@code false}, except for the last plugin, which is called
+     * when there is no other node at a boundary.
+     *
+     * <p>
+     * The default implementation returns {@code true}. A plugin which only works
+     * on some characters can check
+     * {@link InputText#getCharCategoryTypeIdsInText()}.
+     *
+     * @param inputText
+     *            the input text
+     * @return {@code false} if this plugin never provides OOVs in the text
+     */
+    public boolean appliesTo(InputText inputText) {
+        return true;
+    }
+
     int getOOV(UTF8InputText inputText, int offset, long otherWords, List<LatticeNodeImpl> result) {
         int oldSize = result.size();
         int numCreated = provideOOV(inputText, offset, otherWords, result);
         for (int i = 0; i < numCreated; i++) {
             LatticeNodeImpl n = result.get(oldSize + i);
-            n.begin = offset;
-            n.end = offset + n.getWordInfo().getLength();
+            if (n.oovText == null) {
+                n.begin = offset;
+                n.end = offset + n.getWordInfo().getLength();
+            }
         }
         return numCreated;
     }
@@ -103,6 +126,41 @@ public abstract class OovProviderPlugin extends Plugin {
         return node;
     }
 
+    /**
+     * Returns a new node which represents an OOV word of the specified range of
+     * the input text.
+     *
+     * <p>
+     * The node keeps only the range, the parameters and the part of speech. Its
+     * {@link com.worksap.nlp.sudachi.dictionary.WordInfo}, whose surface,
+     * normalized form and dictionary form are the substring of the range, is
+     * created when it is requested for the first time. Most OOV candidates are
+     * not on the best path, so this saves creating the strings for them.
+     *
+     * @param inputText
+     *            the input text
+     * @param begin
+     *            the beginning index of the OOV
+     * @param end
+     *            the ending index of the OOV
+     * @param leftId
+     *            the left-ID of the OOV
+     * @param rightId
+     *            the right-ID of the OOV
+     * @param cost
+     *            the cost of the OOV
+     * @param posId
+     *            the ID of the part of speech of the OOV
+     * @return a new OOV node
+     */
+    protected LatticeNodeImpl createNode(InputText inputText, int begin, int end, short leftId, short rightId,
+            short cost, short posId) {
+        LatticeNodeImpl node = createNode();
+        node.setParameter(leftId, rightId, cost);
+        node.setLazyWordInfo(inputText, begin, end, posId);
+        return node;
+    }
+
     /**
      * Recommended name for user POS mode flag
      */
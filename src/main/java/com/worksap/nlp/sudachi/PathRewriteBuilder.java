@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A builder which rewrites a path of the lattice by replacing sequences of its
+ * nodes.
+ *
+ * <p>
+ * The replacements are recorded with the indices of the path given to the
+ * constructor, which is not modified until {@link #applyReplacements()}. Then
+ * all the replacements are applied in a single pass over the path, while
+ * {@link PathRewritePlugin#concatenate(List, int, int, Lattice, String)}
+ * shifts the rest of the path at each call.
+ */
+public class PathRewriteBuilder {
+
+    private final List<LatticeNode> path;
+
+    private int[] replacementBegins = new int[0];
+    private int[] replacementEnds = new int[0];
+    private LatticeNode[] replacementNodes = new LatticeNode[0];
+    private int numReplacements;
+
+    /**
+     * Creates a builder which rewrites the specified path.
+     *
+     * @param path
+     *            the path to rewrite
+     */
+    public PathRewriteBuilder(List<LatticeNode> path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the path. The path is not modified until
+     * {@link #applyReplacements()}.
+     *
+     * @return the path
+     */
+    public List<LatticeNode> getPath() {
+        return path;
+    }
+
+    /**
+     * Records a replacement to be applied by {@link #applyReplacements()}. The
+     * sequence of nodes begins at the specified {@code begin} and extends to the
+     * node at index {@code end - 1}.
+     *
+     * <p>
+     * The replacements must be recorded in the order of the indices and must not
+     * overlap each other.
+     *
+     * @param begin
+     *            the beginning index
+     * @param end
+     *            the ending index
+     * @param node
+     *            the node which replaces the sequence
+     * @throws IndexOutOfBoundsException
+     *             if {@code begin} is negative, {@code end} is greater than the
+     *             length of the path, {@code begin} equals or is greater than
+     *             {@code end}, or the sequence overlaps the previously recorded
+     *             one
+     */
+    public void addReplacement(int begin, int end, LatticeNode node) {
+        if (begin < 0) {
+            throw new IndexOutOfBoundsException(Integer.toString(begin));
+        }
+        if (end > path.size()) {
+            throw new IndexOutOfBoundsException("end > size()");
+        }
+        if (begin >= end) {
+            throw new IndexOutOfBoundsException("begin >= end");
+        }
+        if (numReplacements > 0 && begin < replacementEnds[numReplacements - 1]) {
+            throw new IndexOutOfBoundsException("overlaps the previous replacement");
+        }
+
+        if (numReplacements == replacementBegins.length) {
+            int capacity = Math.max(8, numReplacements * 2);
+            replacementBegins = Arrays.copyOf(replacementBegins, capacity);
+            replacementEnds = Arrays.copyOf(replacementEnds, capacity);
+            replacementNodes = Arrays.copyOf(replacementNodes, capacity);
+        }
+        replacementBegins[numReplacements] = begin;
+        replacementEnds[numReplacements] = end;
+        replacementNodes[numReplacements] = node;
+        numReplacements++;
+    }
+
+    /**
+     * Returns the number of the recorded replacements which are not applied yet.
+     *
+     * @return the number of the replacements
+     */
+    public int getNumReplacements() {
+        return numReplacements;
+    }
+
+    /**
+     * Applies all the replacements recorded by {@link #addReplacement}. The
+     * result is the same as replacing each of them in the reverse order.
+     */
+    public void applyReplacements() {
+        if (numReplacements == 0) {
+            return;
+        }
+
+        int size = path.size();
+        int position = replacementBegins[0];
+        int write = position;
+        for (int i = 0; i < numReplacements; i++) {
+            int begin = replacementBegins[i];
+            for (; position < begin; position++) {
+                path.set(write++, path.get(position));
+            }
+            path.set(write++, replacementNodes[i]);
+            position = replacementEnds[i];
+        }
+        for (; position < size; position++) {
+            path.set(write++, path.get(position));
+        }
+        path.subList(write, size).clear();
+
+        Arrays.fill(replacementNodes, 0, numReplacements, null);
+        numReplacements = 0;
+    }
+}
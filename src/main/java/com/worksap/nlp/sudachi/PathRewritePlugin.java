@@ -18,7 +18,6 @@ package com.worksap.nlp.sudachi;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 import com.worksap.nlp.sudachi.dictionary.CategoryType;
@@ -62,7 +61,8 @@ public abstract class PathRewritePlugin extends Plugin {
     /**
      * Rewrite the path of the lattice. The path is a list of nodes of the lattice.
      * To join some nodes you can use {@link #concatenate} or
-     * {@link #concatenateOov}.
+     * {@link #concatenateOov}. The overloads which take a
+     * {@link PathRewriteBuilder} rewrite a long path in linear time.
      *
      * @param text
      *            the input text
@@ -73,6 +73,24 @@ public abstract class PathRewritePlugin extends Plugin {
      */
     public abstract void rewrite(InputText text, List<LatticeNode> path, Lattice lattice);
 
+    /**
+     * Returns whether this plugin may rewrite the path of the specified text.
+     * {@link Tokenizer} does not call {@link #rewrite} if this method returns
+     * {@code false}.
+     *
+     * <p>
+     * The default implementation returns {@code true}. A plugin which only works
+     * on some characters can check
+     * {@link InputText#getCharCategoryTypeIdsInText()}.
+     *
+     * @param text
+     *            the input text
+     * @return {@code false} if this plugin never changes the path of the text
+     */
+    public boolean appliesTo(InputText text) {
+        return true;
+    }
+
     /**
      * Concatenate the sequence of nodes in the path. The sequence begins at the
      * specified {@code begin} and extends to the node at index {@code end - 1}.
@@ -98,12 +116,54 @@ public abstract class PathRewritePlugin extends Plugin {
      *             than {@code end}
      */
     public LatticeNode concatenate(List<LatticeNode> path, int begin, int end, Lattice lattice, String normalizedForm) {
+        LatticeNode node = concatenatedNode(path, begin, end, lattice, normalizedForm);
+        replaceNode(path, begin, end, node);
+        return node;
+    }
+
+    /**
+     * Concatenate the sequence of nodes in the path of the builder. The sequence
+     * begins at the specified {@code begin} and extends to the node at index
+     * {@code end - 1}. The path is rewritten by
+     * {@link PathRewriteBuilder#applyReplacements()}, and the indices of the
+     * later sequences are not shifted until then.
+     *
+     * <p>
+     * The concatenated node has the POS ID of the head of the sequence.
+     *
+     * @param builder
+     *            the builder of the path
+     * @param begin
+     *            the beginning index
+     * @param end
+     *            the ending index
+     * @param lattice
+     *            the lattice
+     * @param normalizedForm
+     *            if {@code normalizedForm} is {@code null}, concatenate the
+     *            normalizedForms of each words
+     * @return the concatenated node
+     * @throws IndexOutOfBoundsException
+     *             if {@code begin} or {@code end} are negative, greater than the
+     *             length of the sequence, {@code begin} equals or is greater than
+     *             {@code end}, or the sequence overlaps the previously
+     *             concatenated one
+     */
+    public LatticeNode concatenate(PathRewriteBuilder builder, int begin, int end, Lattice lattice,
+            String normalizedForm) {
+        LatticeNode node = concatenatedNode(builder.getPath(), begin, end, lattice, normalizedForm);
+        builder.addReplacement(begin, end, node);
+        return node;
+    }
+
+    private LatticeNode concatenatedNode(List<LatticeNode> path, int begin, int end, Lattice lattice,
+            String normalizedForm) {
         if (begin >= end) {
             throw new IndexOutOfBoundsException("begin >= end");
         }
         int b = path.get(begin).getBegin();
         int e = path.get(end - 1).getEnd();
-        short posId = path.get(begin).getWordInfo().getPOSId();
+        short posId = path.get(begin).getPOSId();
         StringBuilder surface = new StringBuilder();
         int length = 0;
         StringBuilder normalizedFormBuilder = new StringBuilder();
@@ -126,7 +186,6 @@ public abstract class PathRewritePlugin extends Plugin {
         LatticeNode node = lattice.createNode();
         node.setRange(b, e);
         node.setWordInfo(wi);
-        replaceNode(path, begin, end, node);
         return node;
     }
 
@@ -154,17 +213,56 @@ public abstract class PathRewritePlugin extends Plugin {
      *             than {@code end}
      */
     public LatticeNode concatenateOov(List<LatticeNode> path, int begin, int end, short posId, Lattice lattice) {
+        LatticeNode node = concatenatedOovNode(path, begin, end, posId, lattice);
+        replaceNode(path, begin, end, node);
+        return node;
+    }
+
+    /**
+     * Concatenate the sequence of nodes in the path of the builder. The sequence
+     * begins at the specified {@code begin} and extends to the node at index
+     * {@code end - 1}. The path is rewritten by
+     * {@link PathRewriteBuilder#applyReplacements()}, and the indices of the
+     * later sequences are not shifted until then.
+     *
+     * <p>
+     * The concatenated node is marked as OOV.
+     *
+     * @param builder
+     *            the builder of the path
+     * @param begin
+     *            the beginning index
+     * @param end
+     *            the ending index
+     * @param posId
+     *            the POS ID of the concatenated node
+     * @param lattice
+     *            the lattice
+     * @return the concatenated OOV node
+     * @throws IndexOutOfBoundsException
+     *             if {@code begin} or {@code end} are negative, greater than the
+     *             length of the sequence, {@code begin} equals or is greater than
+     *             {@code end}, or the sequence overlaps the previously
+     *             concatenated one
+     */
+    public LatticeNode concatenateOov(PathRewriteBuilder builder, int begin, int end, short posId,
+            Lattice lattice) {
+        LatticeNode node = concatenatedOovNode(builder.getPath(), begin, end, posId, lattice);
+        builder.addReplacement(begin, end, node);
+        return node;
+    }
+
+    private LatticeNode concatenatedOovNode(List<LatticeNode> path, int begin, int end, short posId,
+            Lattice lattice) {
         if (begin >= end) {
             throw new IndexOutOfBoundsException("begin >= end");
         }
         int b = path.get(begin).getBegin();
         int e = path.get(end - 1).getEnd();
 
-        Optional<? extends LatticeNode> n = lattice.getMinimumNode(b, e);
-        if (n.isPresent()) {
-            LatticeNode node = n.get();
-            replaceNode(path, begin, end, node);
-            return node;
+        LatticeNode n = ((LatticeImpl) lattice).findMinimumNode(b, e);
+        if (n != null) {
+            return n;
         }
 
         StringBuilder surface = new StringBuilder();
@@ -181,7 +279,6 @@ public abstract class PathRewritePlugin extends Plugin {
         node.setRange(b, e);
         node.setWordInfo(wi);
         node.setOOV();
-        replaceNode(path, begin, end, node);
         return node;
     }
 
@@ -198,6 +295,22 @@ public abstract class PathRewritePlugin extends Plugin {
         return text.getCharCategoryTypes(node.getBegin(), node.getEnd());
     }
 
+    /**
+     * Return the category types of the node as a bitmask of
+     * {@link CategoryType#getId()}. Unlike
+     * {@link #getCharCategoryTypes(InputText, LatticeNode)}, this method does not
+     * create a set.
+     *
+     * @param text
+     *            the input text
+     * @param node
+     *            the node
+     * @return the bitmask of the category types of the node
+     */
+    public int getCharCategoryTypeIds(InputText text, LatticeNode node) {
+        return text.getCharCategoryTypeIds(node.getBegin(), node.getEnd());
+    }
+
     private void replaceNode(List<LatticeNode> path, int begin, int end, LatticeNode node) {
         path.subList(begin, end).clear();
         path.add(begin, node);
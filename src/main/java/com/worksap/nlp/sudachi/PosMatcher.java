@@ -16,6 +16,7 @@
 
 package com.worksap.nlp.sudachi;
 
+import com.worksap.nlp.sudachi.dictionary.GrammarImpl;
 import com.worksap.nlp.sudachi.dictionary.POS;
 
 import java.util.BitSet;
@@ -121,7 +122,7 @@ public class PosMatcher implements Predicate<Morpheme>, Iterable<POS> {
      */
     @Override
     public boolean test(Morpheme morpheme) {
-        assert ((MorphemeImpl) morpheme).list.grammar == dictionary.grammar;
+        assert ((GrammarImpl) ((MorphemeImpl) morpheme).list.grammar).isViewOf(dictionary.grammar);
         return matching.get(morpheme.partOfSpeechId());
     }
 
@@ -56,10 +56,10 @@ import com.worksap.nlp.sudachi.dictionary.Grammar;
  * With above setting example, the plugin rewrites input "エーービ〜〜〜シ〰〰〰〰" to
  * "エービーシー".
  */
-class ProlongedSoundMarkInputTextPlugin extends InputTextPlugin {
+class ProlongedSoundMarkInputTextPlugin extends InputTextPlugin implements StreamingInputTextPlugin {
 
-    private Set<Integer> prolongedSoundMarkSet = new HashSet<>();
-    private String replacementSymbol;
+    Set<Integer> prolongedSoundMarkSet = new HashSet<>();
+    String replacementSymbol;
 
     @Override
     public void setUp(Grammar Grammar) throws IOException {
@@ -72,27 +72,55 @@ class ProlongedSoundMarkInputTextPlugin extends InputTextPlugin {
 
     @Override
     public void rewrite(InputTextBuilder builder) {
-        String text = builder.getText();
+        InputTextTransformer.rewrite(builder, newTransformer());
+    }
+
+    @Override
+    public InputTextTransformer newTransformer() {
+        return new Transformer();
+    }
+
+    private class Transformer extends InputTextTransformer {
+        /** the number of the buffered prolonged sound marks */
+        private int markLength;
 
-        int n = text.length();
-        int offset = 0;
-        int markStartIndex = n;
-        boolean isProlongedSoundMark = false;
-        for (int i = 0; i < n; i++) {
-            int cp = text.codePointAt(i);
-            if (!isProlongedSoundMark && prolongedSoundMarkSet.contains(cp)) {
-                isProlongedSoundMark = true;
-                markStartIndex = i;
-            } else if (isProlongedSoundMark && !prolongedSoundMarkSet.contains(cp)) {
-                if ((i - markStartIndex) > 1) {
-                    builder.replace(markStartIndex - offset, i - offset, replacementSymbol);
-                    offset += i - markStartIndex - 1;
+        @Override
+        protected void reset() {
+            super.reset();
+            markLength = 0;
+        }
+
+        @Override
+        protected void transform() {
+            while (available() > markLength) {
+                if (!hasCodePointAt(markLength)) {
+                    return;
+                }
+                boolean isProlongedSoundMark = prolongedSoundMarkSet.contains(codePointAt(markLength));
+                if (markLength == 0) {
+                    if (isProlongedSoundMark) {
+                        markLength = 1;
+                    } else {
+                        keep(1);
+                    }
+                } else if (isProlongedSoundMark) {
+                    markLength++;
+                } else {
+                    flushMarks();
                 }
-                isProlongedSoundMark = false;
+            }
+            if (isEnded()) {
+                flushMarks();
             }
         }
-        if (isProlongedSoundMark && (n - markStartIndex) > 1) {
-            builder.replace(markStartIndex - offset, n - offset, replacementSymbol);
+
+        private void flushMarks() {
+            if (markLength > 1) {
+                replace(markLength, replacementSymbol);
+            } else {
+                keep(markLength);
+            }
+            markLength = 0;
         }
     }
 }
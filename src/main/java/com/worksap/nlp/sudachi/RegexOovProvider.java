@@ -16,9 +16,9 @@
 
 package com.worksap.nlp.sudachi;
 
+import com.worksap.nlp.sudachi.dictionary.CategoryType;
 import com.worksap.nlp.sudachi.dictionary.Grammar;
 import com.worksap.nlp.sudachi.dictionary.POS;
-import com.worksap.nlp.sudachi.dictionary.WordInfo;
 
 import java.io.IOException;
 import java.util.List;
@@ -43,7 +43,8 @@ import java.util.regex.Pattern;
  *      "rightId": 500,
  *      "cost": 5000,
  *      "maxLength": 32,
- *      "boundaries": "relaxed"
+ *      "boundaries": "relaxed",
+ *      "categories": [ "NUMERIC", "ALPHA" ]
  *  }
  * }
  * </pre>
@@ -64,6 +65,13 @@ public class RegexOovProvider extends OovProviderPlugin {
     private short rightId = Short.MIN_VALUE;
     private int maxLength = 32;
     private boolean strictBoundaries = true;
+    /** the OOVs are provided only in the texts with any of these categories, or any text if 0 */
+    private int categories;
+    /**
+     * The matcher over the current sentence of each thread. A plugin is shared by
+     * the tokenizers, and a tokenizer is used by one thread at once.
+     */
+    private final ThreadLocal<SentenceMatcher> matchers = ThreadLocal.withInitial(SentenceMatcher::new);
 
     @Override
     public void setUp(Grammar grammar) throws IOException {
@@ -84,6 +92,12 @@ public class RegexOovProvider extends OovProviderPlugin {
         pattern = checkPattern(settings.getString("regex"));
         maxLength = settings.getInt("maxLength", 32);
         strictBoundaries = isStrictContinuity(settings);
+        categories = CategoryType.parseIds(settings.getStringList("categories"));
+    }
+
+    @Override
+    public boolean appliesTo(InputText inputText) {
+        return categories == 0 || (inputText.getCharCategoryTypeIdsInText() & categories) != 0;
     }
 
     @Override
@@ -97,16 +111,15 @@ public class RegexOovProvider extends OovProviderPlugin {
             }
         }
 
-        String text = inputText.getText();
-        Matcher matcher = pattern.matcher(text);
-        byte[] byteText = inputText.getByteText();
-        int textLength = byteText.length;
+        Matcher matcher = matchers.get().reset(pattern, inputText.getText());
+        int textLength = inputText.getByteLength();
         int regionStartChars = inputText.modifiedOffset(offset);
         int regionEndBytes = Math.min(offset + maxLength, textLength);
         int regionEndChars = inputText.modifiedOffset(regionEndBytes);
         matcher.region(regionStartChars, regionEndChars);
 
-        if (matcher.find()) {
+        // the pattern is anchored, so the match is tried only at the region start
+        if (matcher.lookingAt()) {
             int endChar = matcher.end();
             int oovLength = inputText.getCodePointsOffsetLength(offset, endChar - regionStartChars);
             if (WordMask.hasNth(otherWords, oovLength)) {
@@ -124,11 +137,9 @@ public class RegexOovProvider extends OovProviderPlugin {
                 }
             }
 
-            LatticeNodeImpl node = new LatticeNodeImpl(null, leftId, rightId, cost, -1);
-            node.setOOV();
-            String oov = text.substring(matcher.start(), matcher.end());
-            WordInfo info = new WordInfo(oov, (short) oovLength, posId, oov, oov, "");
-            node.setWordInfo(info);
+            LatticeNodeImpl node = createNode(inputText, offset, offset + oovLength, leftId, rightId, cost, posId);
+            // the OOVs of this provider have always had the word ID of -1
+            node.wordId = -1;
             nodes.add(node);
             return 1;
         } else {
@@ -166,4 +177,26 @@ public class RegexOovProvider extends OovProviderPlugin {
         }
         throw new IllegalArgumentException("allowed continuity values: [strict, relaxed], was " + content);
     }
+
+    /**
+     * A matcher which is created once per thread and is reset only when the
+     * sentence changes.
+     */
+    private static final class SentenceMatcher {
+        private Pattern pattern;
+        private CharSequence text;
+        private Matcher matcher;
+
+        Matcher reset(Pattern pattern, CharSequence text) {
+            if (matcher == null || this.pattern != pattern) {
+                this.pattern = pattern;
+                this.text = text;
+                matcher = pattern.matcher(text);
+            } else if (this.text != text) {
+                this.text = text;
+                matcher.reset(text);
+            }
+            return matcher;
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A trie of the targets of replacement rules.
+ *
+ * <p>
+ * The nodes are stored in arrays. The children of each node are sorted by their
+ * labels and are looked up by binary search, so matching does not allocate any
+ * objects.
+ */
+class ReplacementTrie {
+
+    private static final int ROOT = 0;
+
+    private final int[] childBegins;
+    private final int[] childEnds;
+    private final char[] labels;
+    private final int[] children;
+    private final int[] depths;
+    private final String[] values;
+    private final int maxLength;
+
+    private ReplacementTrie(int[] childBegins, int[] childEnds, char[] labels, int[] children, int[] depths,
+            String[] values) {
+        this.childBegins = childBegins;
+        this.childEnds = childEnds;
+        this.labels = labels;
+        this.children = children;
+        this.depths = depths;
+        this.values = values;
+        this.maxLength = Arrays.stream(depths).max().orElse(0);
+    }
+
+    /**
+     * Builds the trie from the rules.
+     *
+     * @param rules
+     *            the map from the targets to the replacements
+     * @return the trie
+     */
+    static ReplacementTrie build(Map<String, String> rules) {
+        Node root = new Node();
+        for (Map.Entry<String, String> rule : rules.entrySet()) {
+            Node node = root;
+            for (char c : rule.getKey().toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new Node());
+            }
+            node.value = rule.getValue();
+        }
+
+        // numbers the nodes in breadth-first order
+        List<Node> nodes = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.id = nodes.size();
+            nodes.add(node);
+            queue.addAll(node.children.values());
+        }
+
+        int size = nodes.size();
+        int[] childBegins = new int[size];
+        int[] childEnds = new int[size];
+        char[] labels = new char[size - 1];
+        int[] children = new int[size - 1];
+        int[] depths = new int[size];
+        String[] values = new String[size];
+        int edge = 0;
+        for (Node node : nodes) {
+            childBegins[node.id] = edge;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                labels[edge] = child.getKey();
+                children[edge] = child.getValue().id;
+                depths[child.getValue().id] = depths[node.id] + 1;
+                edge++;
+            }
+            childEnds[node.id] = edge;
+            values[node.id] = node.value;
+        }
+        return new ReplacementTrie(childBegins, childEnds, labels, children, depths, values);
+    }
+
+    /**
+     * Returns the longest target which is a prefix of the text at the specified
+     * position.
+     *
+     * @param text
+     *            the text
+     * @param begin
+     *            the position to match the targets
+     * @return the node of the longest matched target, or {@code -1} if no target
+     *         matches
+     */
+    int longestMatch(CharSequence text, int begin) {
+        int node = ROOT;
+        int matched = -1;
+        for (int i = begin; i < text.length(); i++) {
+            node = findChild(node, text.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            if (values[node] != null) {
+                matched = node;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the length of the longest target.
+     *
+     * @return the length of the longest target
+     */
+    int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Returns the length of the target of the matched node.
+     *
+     * @param node
+     *            the node returned by {@link #longestMatch}
+     * @return the length of the target
+     */
+    int getLength(int node) {
+        return depths[node];
+    }
+
+    /**
+     * Returns the replacement of the matched node.
+     *
+     * @param node
+     *            the node returned by {@link #longestMatch}
+     * @return the replacement
+     */
+    String getReplacement(int node) {
+        return values[node];
+    }
+
+    private int findChild(int node, char c) {
+        int index = Arrays.binarySearch(labels, childBegins[node], childEnds[node], c);
+        return (index < 0) ? -1 : children[index];
+    }
+
+    private static class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        String value;
+        int id;
+    }
+}
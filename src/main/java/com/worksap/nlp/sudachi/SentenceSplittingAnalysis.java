@@ -22,16 +22,34 @@ import com.worksap.nlp.sudachi.sentdetect.SentenceDetector;
 import java.util.ArrayList;
 import java.util.Iterator;
 
-/*internal*/ class SentenceSplittingAnalysis implements SentenceDetector.NonBreakCheker {
+/*internal*/ class SentenceSplittingAnalysis<T> implements SentenceDetector.NonBreakCheker {
+    /**
+     * Analyzes a single sentence.
+     *
+     * @param <T>
+     *            the type of the analysis result
+     */
+    @FunctionalInterface
+    interface SentenceAnalyzer<T> {
+        /**
+         * @param sentence
+         *            the input of the sentence
+         * @param offset
+         *            the offset of the sentence in the original text of the buffer
+         * @return the result of the analysis
+         */
+        T analyze(UTF8InputText sentence, int offset);
+    }
+
     private final SentenceDetector detector = new SentenceDetector();
 
-    private final Tokenizer.SplitMode mode;
     private final JapaneseTokenizer tokenizer;
-    final ArrayList<MorphemeList> result = new ArrayList<>();
+    private final SentenceAnalyzer<T> analyzer;
+    final ArrayList<T> result = new ArrayList<>();
 
-    SentenceSplittingAnalysis(Tokenizer.SplitMode mode, JapaneseTokenizer tokenizer) {
-        this.mode = mode;
+    SentenceSplittingAnalysis(JapaneseTokenizer tokenizer, SentenceAnalyzer<T> analyzer) {
         this.tokenizer = tokenizer;
+        this.analyzer = analyzer;
     }
 
     UTF8InputText input;
@@ -53,7 +71,7 @@ import java.util.Iterator;
                 length = eos - bos;
             }
             UTF8InputText sentence = input.slice(bos, eos);
-            result.add(tokenizer.tokenizeSentence(mode, sentence));
+            result.add(analyzer.analyze(sentence, bosPosition()));
             normalized = normalized.substring(length);
             bos = eos;
             this.bos = bos;
@@ -61,7 +79,7 @@ import java.util.Iterator;
 
         // buffer is full, need to clean it up
         if (length < 0 && buffer.length() == -length) {
-            result.add(tokenizer.tokenizeSentence(mode, input));
+            result.add(analyzer.analyze(input, 0));
             return -length;
         }
 
@@ -77,6 +95,7 @@ import java.util.Iterator;
         UTF8InputText inp = input;
         int byteEOS = inp.getCodePointsOffsetLength(0, bos + length);
         byte[] bytes = inp.getByteText();
+        tokenizer.updateLexicon();
         LexiconSet lexicon = tokenizer.lexicon;
         for (int i = Math.max(0, byteEOS - 64); i < byteEOS; i++) {
             Iterator<int[]> iterator = lexicon.lookup(bytes, i);
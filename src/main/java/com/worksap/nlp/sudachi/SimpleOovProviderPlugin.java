@@ -18,7 +18,6 @@ package com.worksap.nlp.sudachi;
 
 import com.worksap.nlp.sudachi.dictionary.Grammar;
 import com.worksap.nlp.sudachi.dictionary.POS;
-import com.worksap.nlp.sudachi.dictionary.WordInfo;
 
 import java.util.List;
 
@@ -66,16 +65,27 @@ class SimpleOovProviderPlugin extends OovProviderPlugin {
     @Override
     public int provideOOV(InputText inputText, int offset, long otherWords, List<LatticeNodeImpl> nodes) {
         if (otherWords == 0) {
-            LatticeNodeImpl node = createNode();
-            node.setParameter(leftId, rightId, cost);
             int length = inputText.getWordCandidateLength(offset);
-            String s = inputText.getSubstring(offset, offset + length);
-            WordInfo info = new WordInfo(s, (short) length, oovPOSId, s, s, "");
-            node.setWordInfo(info);
-            nodes.add(node);
+            nodes.add(createNode(inputText, offset, offset + length, leftId, rightId, cost, oovPOSId));
             return 1;
         } else {
             return 0;
         }
     }
+
+    /**
+     * Returns a new node of the OOV of the specified range with the part of
+     * speech and the parameters of this plugin.
+     *
+     * @param inputText
+     *            the input text
+     * @param begin
+     *            the beginning index of the OOV
+     * @param end
+     *            the ending index of the OOV
+     * @return a new OOV node
+     */
+    LatticeNodeImpl createNode(InputText inputText, int begin, int end) {
+        return createNode(inputText, begin, end, leftId, rightId, cost, oovPOSId);
+    }
 }
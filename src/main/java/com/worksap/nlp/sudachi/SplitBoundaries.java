@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+/**
+ * The boundaries of the morphemes of a text in all split modes.
+ *
+ * @see Tokenizer#tokenizeAllBoundaries(String)
+ */
+public class SplitBoundaries {
+
+    private final int[][] boundaries;
+
+    SplitBoundaries(int[][] boundaries) {
+        this.boundaries = boundaries;
+    }
+
+    /**
+     * Returns the boundaries of the morphemes in the specified mode.
+     *
+     * <p>
+     * The returned array is a copy, and can be modified by the caller.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @return the increasing offsets of the boundaries in the input text
+     */
+    public int[] get(Tokenizer.SplitMode mode) {
+        return boundaries[mode.ordinal()].clone();
+    }
+}
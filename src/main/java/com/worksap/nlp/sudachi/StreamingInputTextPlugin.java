@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+/**
+ * An {@link InputTextPlugin} which can rewrite the input text as a stage of a
+ * single-pass pipeline.
+ *
+ * <p>
+ * {@link JapaneseTokenizer} chains the consecutive plugins implementing this
+ * interface, and runs them in one pass over the input text. The other plugins
+ * are called with {@link InputTextPlugin#rewrite} as before.
+ */
+interface StreamingInputTextPlugin {
+
+    /**
+     * Returns a new transformer which rewrites the input text in the same way as
+     * {@link InputTextPlugin#rewrite}.
+     *
+     * @return a new transformer
+     */
+    InputTextTransformer newTransformer();
+}
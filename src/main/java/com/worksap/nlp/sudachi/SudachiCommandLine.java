@@ -74,10 +74,22 @@ public class SudachiCommandLine {
         try (InputStreamReader inputReader = isFileInput ? new InputStreamReader(input, StandardCharsets.UTF_8)
                 : new InputStreamReader(input); BufferedReader reader = new BufferedReader(inputReader)) {
 
+            // the default formatter for -t and -ts needs only the boundaries of morphemes
+            WordSegmentationFormatter segmentationFormatter = (isWordSegmentation
+                    && formatter.getClass() == WordSegmentationFormatter.class)
+                            ? (WordSegmentationFormatter) formatter
+                            : null;
+
             for (String line = reader.readLine(); line != null; line = reader.readLine()) {
                 try {
-                    for (List<Morpheme> sentence : tokenizer.tokenizeSentences(mode, line)) {
-                        formatter.printSentence(sentence, output);
+                    if (segmentationFormatter != null) {
+                        for (int[] boundaries : tokenizer.tokenizeSentenceBoundaries(mode, line)) {
+                            segmentationFormatter.printSentence(line, boundaries, output);
+                        }
+                    } else {
+                        for (List<Morpheme> sentence : tokenizer.tokenizeSentences(mode, line)) {
+                            formatter.printSentence(sentence, output);
+                        }
                     }
                     if (isWordSegmentation) {
                         output.print("\n");
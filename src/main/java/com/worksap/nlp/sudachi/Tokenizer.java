@@ -19,6 +19,12 @@ package com.worksap.nlp.sudachi;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A tokenizer of morphological analysis.
@@ -50,6 +56,101 @@ public interface Tokenizer {
         return tokenize(SplitMode.C, text);
     }
 
+    /**
+     * Tokenize a text in UTF-8. This method tokenizes an input text as a sentence
+     * in the same way as {@link #tokenize(SplitMode, String)}.
+     *
+     * <p>
+     * If no input text plugin changes the text, the lattice is built directly on
+     * {@code text} without encoding the text again. The content of {@code text}
+     * must not be modified while this method runs. The offsets of the morphemes
+     * are available both in characters by {@link Morpheme#begin()} and in bytes
+     * by {@link MorphemeList#getByteBegin(int)}, and the byte offsets are
+     * relative to {@code offset}.
+     *
+     * <p>
+     * The default implementation decodes the text and calls
+     * {@link #tokenize(SplitMode, String)}.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @param text
+     *            the array which contains the input text in UTF-8
+     * @param offset
+     *            the offset of the input text in {@code text}
+     * @param length
+     *            the length of the input text in bytes
+     * @return a result of tokenizing
+     * @throws IllegalArgumentException
+     *             if the input text is not valid UTF-8
+     */
+    default MorphemeList tokenize(SplitMode mode, byte[] text, int offset, int length) {
+        String str;
+        try {
+            str = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT).decode(ByteBuffer.wrap(text, offset, length))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("invalid UTF-8 sequence", e);
+        }
+        return tokenize(mode, str);
+    }
+
+    /**
+     * Tokenize a text in UTF-8 with {@link SplitMode}.C.
+     *
+     * @param text
+     *            the array which contains the input text in UTF-8
+     * @param offset
+     *            the offset of the input text in {@code text}
+     * @param length
+     *            the length of the input text in bytes
+     * @return a result of tokenizing
+     * @see #tokenize(SplitMode,byte[],int,int)
+     */
+    default MorphemeList tokenize(byte[] text, int offset, int length) {
+        return tokenize(SplitMode.C, text, offset, length);
+    }
+
+    /**
+     * Tokenize the remaining bytes of a buffer in UTF-8. The position of the
+     * buffer is not changed.
+     *
+     * <p>
+     * If the buffer is backed by an array, the array is analyzed directly.
+     * Otherwise the bytes are copied.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @param text
+     *            the buffer which contains the input text in UTF-8
+     * @return a result of tokenizing
+     * @throws IllegalArgumentException
+     *             if the input text is not valid UTF-8
+     * @see #tokenize(SplitMode,byte[],int,int)
+     */
+    default MorphemeList tokenize(SplitMode mode, ByteBuffer text) {
+        if (text.hasArray()) {
+            return tokenize(mode, text.array(), text.arrayOffset() + text.position(), text.remaining());
+        }
+        byte[] bytes = new byte[text.remaining()];
+        text.duplicate().get(bytes);
+        return tokenize(mode, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Tokenize the remaining bytes of a buffer in UTF-8 with
+     * {@link SplitMode}.C.
+     *
+     * @param text
+     *            the buffer which contains the input text in UTF-8
+     * @return a result of tokenizing
+     * @see #tokenize(SplitMode,ByteBuffer)
+     */
+    default MorphemeList tokenize(ByteBuffer text) {
+        return tokenize(SplitMode.C, text);
+    }
+
     /**
      * Tokenize sentences. This method divide an input text into sentences and
      * tokenizes them.
@@ -104,6 +205,154 @@ public interface Tokenizer {
         return tokenizeSentences(SplitMode.C, input);
     }
 
+    /**
+     * Tokenize a text and return only the boundaries of the morphemes. This method
+     * tokenizes an input text as a sentence. The tokenizers of
+     * {@link Dictionary#create()} skip building {@link Morpheme} objects and
+     * decoding the informations of the morphemes, so it is faster than
+     * {@link #tokenize(SplitMode, String)} when only the segmentation is needed.
+     *
+     * <p>
+     * The {@code i}-th morpheme spans from {@code result[i]} to
+     * {@code result[i + 1]} in the input text. Zero-length morphemes are omitted.
+     *
+     * <p>
+     * The default implementation builds the boundaries from the result of
+     * {@link #tokenize(SplitMode, String)}.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @param text
+     *            input text
+     * @return the increasing offsets of the boundaries in the input text, or an
+     *         empty array if the text is empty
+     */
+    default int[] tokenizeBoundaries(SplitMode mode, String text) {
+        return tokenize(mode, text).getBoundaries(0);
+    }
+
+    /**
+     * Tokenize a text with {@link SplitMode}.C and return only the boundaries of
+     * the morphemes.
+     *
+     * @param text
+     *            input text
+     * @return the increasing offsets of the boundaries in the input text
+     * @see #tokenizeBoundaries(SplitMode,String)
+     */
+    default int[] tokenizeBoundaries(final String text) {
+        return tokenizeBoundaries(SplitMode.C, text);
+    }
+
+    /**
+     * Tokenize a text and return the boundaries of the morphemes in all split
+     * modes. This method analyzes the text only once, so it is cheaper than
+     * calling {@link #tokenizeBoundaries(SplitMode,String)} for each mode. This
+     * method tokenizes an input text as a single sentence.
+     *
+     * <p>
+     * The default implementation splits the result of
+     * {@link #tokenize(SplitMode, String)} in {@link SplitMode}.C into the other
+     * modes.
+     *
+     * @param text
+     *            input text
+     * @return the boundaries of the morphemes for each split mode
+     * @see #tokenizeBoundaries(SplitMode,String)
+     */
+    default SplitBoundaries tokenizeAllBoundaries(String text) {
+        MorphemeList morphemes = tokenize(SplitMode.C, text);
+        SplitMode[] modes = SplitMode.values();
+        int[][] boundaries = new int[modes.length][];
+        for (SplitMode mode : modes) {
+            boundaries[mode.ordinal()] = morphemes.split(mode).getBoundaries(0);
+        }
+        return new SplitBoundaries(boundaries);
+    }
+
+    /**
+     * Tokenize sentences and return only the boundaries of the morphemes. This
+     * method divide an input text into sentences and tokenizes them.
+     *
+     * <p>
+     * The offsets are ones in the whole input text, not in each sentence. The
+     * default implementation builds the boundaries from the result of
+     * {@link #tokenizeSentences(SplitMode, String)}.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @param text
+     *            input text
+     * @return the boundaries of the morphemes for each sentence
+     * @see #tokenizeBoundaries(SplitMode,String)
+     */
+    default Iterable<int[]> tokenizeSentenceBoundaries(SplitMode mode, String text) {
+        List<int[]> result = new ArrayList<>();
+        int offset = 0;
+        for (MorphemeList sentence : tokenizeSentences(mode, text)) {
+            int[] boundaries = sentence.getBoundaries(offset);
+            if (boundaries.length > 0) {
+                result.add(boundaries);
+                offset = boundaries[boundaries.length - 1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tokenize a text which is already normalized. This method tokenizes an input
+     * text as a sentence in the same way as {@link #tokenize(SplitMode, String)}
+     * except that it does not apply the input text plugins.
+     *
+     * <p>
+     * Use this method for the texts normalized in advance with the same rules as
+     * the input text plugins. The offsets of the morphemes are the same as those
+     * of the input text.
+     *
+     * <p>
+     * The default implementation calls {@link #tokenize(SplitMode, String)},
+     * which gives the same result as long as the input text plugins do not change
+     * the normalized texts.
+     *
+     * @param mode
+     *            a mode of splitting
+     * @param text
+     *            normalized input text
+     * @return a result of tokenizing
+     * @see #setPreNormalized(boolean)
+     */
+    default MorphemeList tokenizeNormalized(SplitMode mode, String text) {
+        return tokenize(mode, text);
+    }
+
+    /**
+     * Tokenize a text which is already normalized with {@link SplitMode}.C.
+     *
+     * @param text
+     *            normalized input text
+     * @return a result of tokenizing
+     * @see #tokenizeNormalized(SplitMode,String)
+     */
+    default MorphemeList tokenizeNormalized(String text) {
+        return tokenizeNormalized(SplitMode.C, text);
+    }
+
+    /**
+     * Sets whether all the input texts of this tokenizer are already normalized.
+     * If {@code true}, all the methods of this tokenizer skip the input text
+     * plugins in the same way as {@link #tokenizeNormalized(SplitMode, String)}.
+     * The default is {@code false}.
+     *
+     * <p>
+     * The default implementation ignores the setting, and the input text plugins
+     * are always applied.
+     *
+     * @param preNormalized
+     *            whether the input texts are already normalized
+     */
+    default void setPreNormalized(boolean preNormalized) {
+    }
+
     /**
      * Prints lattice structure of the analysis into the passed {@link PrintStream}.
      *
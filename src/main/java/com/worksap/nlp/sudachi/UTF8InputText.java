@@ -16,78 +16,165 @@
 
 package com.worksap.nlp.sudachi;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.EnumSet;
-import java.util.List;
 import java.util.Set;
 
 import com.worksap.nlp.sudachi.dictionary.CategoryType;
 import com.worksap.nlp.sudachi.dictionary.Grammar;
 
+/**
+ * An input text which is encoded in UTF-8.
+ *
+ * <p>
+ * The slices returned by {@link #slice(int, int)} share the arrays with the
+ * input text they come from, and access them with the offsets of the slices.
+ */
 class UTF8InputText implements InputText {
 
-    private final String originalText;
-    private final String modifiedText;
+    private final String rootOriginalText;
+    private final String rootModifiedText;
     private final byte[] bytes;
-    private final int[] byteToOriginal;
-    private final int[] byteToModified;
-    private final List<Integer> modifiedToOriginal;
-    private final List<EnumSet<CategoryType>> charCategories;
-    private final List<Integer> charCategoryContinuities;
-    private final List<Boolean> canBowList;
-
-    UTF8InputText(Grammar grammar, String originalText, String modifiedText, byte[] bytes, int[] byteToOriginal,
-            int[] byteToModified, List<Integer> modifiedToOriginal, List<EnumSet<CategoryType>> charCategories,
-            List<Integer> charCategoryContinuities, List<Boolean> canBowList) {
-
+    /** the offset of the root text in {@link #bytes} */
+    private final int arrayOffset;
+    private final OffsetMapping offsets;
+    private final int[] charCategories;
+    private final int[] charCategoryContinuities;
+    private final BitSet canBowList;
+    /** the bytes of the runs analyzed as one unit, or null if there is none */
+    private final BitSet atomicRuns;
+
+    /** the offset of the slice in the bytes of the root */
+    private final int byteOffset;
+    private final int byteLength;
+    /** the offset of the slice in the modified text of the root */
+    private final int charOffset;
+    private final int charLength;
+    /** the offset of the slice in the original text of the root */
+    private final int originalOffset;
+
+    private String originalText;
+    private String modifiedText;
+    private byte[] byteText;
+    private OffsetMapping originalByteOffsets;
+    /** the category types in the text, or -1 if not computed yet */
+    private int charCategoryTypeIdsInText = -1;
+
+    UTF8InputText(Grammar grammar, String originalText, String modifiedText, byte[] bytes, int arrayOffset,
+            int byteLength, OffsetMapping offsets, int[] charCategories, int[] charCategoryContinuities,
+            BitSet canBowList, BitSet atomicRuns, int charCategoryTypeIdsInText) {
+        this(originalText, modifiedText, bytes, arrayOffset, offsets, charCategories, charCategoryContinuities,
+                canBowList, atomicRuns, 0, byteLength, 0, modifiedText.length(), 0);
+        this.charCategoryTypeIdsInText = charCategoryTypeIdsInText;
         this.originalText = originalText;
         this.modifiedText = modifiedText;
+        if (arrayOffset == 0 && byteLength == bytes.length) {
+            this.byteText = bytes;
+        }
+    }
+
+    private UTF8InputText(String rootOriginalText, String rootModifiedText, byte[] bytes, int arrayOffset,
+            OffsetMapping offsets, int[] charCategories, int[] charCategoryContinuities, BitSet canBowList,
+            BitSet atomicRuns, int byteOffset, int byteLength, int charOffset, int charLength, int originalOffset) {
+        this.rootOriginalText = rootOriginalText;
+        this.rootModifiedText = rootModifiedText;
         this.bytes = bytes;
-        this.byteToOriginal = byteToOriginal;
-        this.byteToModified = byteToModified;
-        this.modifiedToOriginal = modifiedToOriginal;
+        this.arrayOffset = arrayOffset;
+        this.offsets = offsets;
         this.charCategories = charCategories;
         this.charCategoryContinuities = charCategoryContinuities;
         this.canBowList = canBowList;
+        this.atomicRuns = atomicRuns;
+        this.byteOffset = byteOffset;
+        this.byteLength = byteLength;
+        this.charOffset = charOffset;
+        this.charLength = charLength;
+        this.originalOffset = originalOffset;
     }
 
     @Override
     public String getOriginalText() {
+        if (originalText == null) {
+            originalText = rootOriginalText.substring(originalOffset,
+                    offsets.byteToOriginal(byteOffset + byteLength));
+        }
         return originalText;
     }
 
     @Override
     public String getText() {
+        if (modifiedText == null) {
+            modifiedText = rootModifiedText.substring(charOffset, charOffset + charLength);
+        }
         return modifiedText;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The bytes of a slice are copied at the first call.
+     */
     public byte[] getByteText() {
+        if (byteText == null) {
+            int begin = arrayOffset + byteOffset;
+            byteText = Arrays.copyOfRange(bytes, begin, begin + byteLength);
+        }
+        return byteText;
+    }
+
+    @Override
+    public int getByteLength() {
+        return byteLength;
+    }
+
+    /**
+     * Returns the array which contains the UTF-8 representation of the text
+     * without copying. The text begins at {@link #getByteOffset()} in the array.
+     *
+     * @return the array which contains the bytes of the text
+     */
+    byte[] getByteArray() {
         return bytes;
     }
 
+    /**
+     * Returns the offset of the text in {@link #getByteArray()}.
+     *
+     * @return the offset of the text
+     */
+    int getByteOffset() {
+        return arrayOffset + byteOffset;
+    }
+
     @Override
     public String getSubstring(int begin, int end) {
         if (begin < 0) {
             throw new StringIndexOutOfBoundsException(begin);
         }
-        if (end > bytes.length) {
+        if (end > byteLength) {
             throw new StringIndexOutOfBoundsException(end);
         }
         if (begin > end) {
             throw new StringIndexOutOfBoundsException(end - begin);
         }
 
-        return modifiedText.substring(byteToModified[begin], byteToModified[end]);
+        return rootModifiedText.substring(toModified(begin) + charOffset, toModified(end) + charOffset);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The returned text is a view of this text and does not copy the arrays.
+     */
     @Override
     public UTF8InputText slice(int begin, int end) {
         if (begin < 0) {
             throw new StringIndexOutOfBoundsException(begin);
         }
-        if (end > modifiedText.length()) {
+        if (end > charLength) {
             throw new StringIndexOutOfBoundsException(end);
         }
         if (begin > end) {
@@ -96,122 +183,145 @@ class UTF8InputText implements InputText {
 
         int byteBegin = getCodePointsOffsetLength(0, begin);
         int length = getCodePointsOffsetLength(byteBegin, end - begin);
-        int byteEnd = byteBegin + length;
-
-        String originalText = this.originalText.substring(byteToOriginal[byteBegin], byteToOriginal[byteEnd]);
-        String modifiedText = this.modifiedText.substring(begin, end);
-        byte[] bytes = Arrays.copyOfRange(this.bytes, byteBegin, byteEnd);
-
-        int[] byteToOriginal = new int[length + 1];
-        for (int i = 0; i < length + 1; i++) {
-            byteToOriginal[i] = this.byteToOriginal[byteBegin + i] - this.byteToOriginal[byteBegin];
-        }
-        int[] byteToModified = new int[length + 1];
-        for (int i = 0; i < length + 1; i++) {
-            byteToModified[i] = this.byteToModified[byteBegin + i] - begin;
-        }
-        List<Integer> modifiedToOriginal = new ArrayList<>();
-        for (int i = 0; i < end + 1; i++) {
-            modifiedToOriginal.add(this.modifiedToOriginal.get(i) - this.modifiedToOriginal.get(begin));
-        }
 
-        List<EnumSet<CategoryType>> charCategories = this.charCategories.subList(begin, end);
-
-        List<Integer> charCategoryContinuities = this.charCategoryContinuities.subList(byteBegin, byteEnd);
-        if (charCategoryContinuities.get(length - 1) != 1) {
-            int i = length - 1;
-            int len = 1;
-            while (i >= 0 && charCategoryContinuities.get(i) != 1) {
-                charCategoryContinuities.set(i--, len++);
-            }
-        }
-
-        List<Boolean> canBowList = this.canBowList.subList(begin, end);
+        return new UTF8InputText(rootOriginalText, rootModifiedText, bytes, arrayOffset, offsets, charCategories,
+                charCategoryContinuities, canBowList, atomicRuns, byteOffset + byteBegin, length, charOffset + begin,
+                end - begin, offsets.modifiedToOriginal(charOffset + begin));
+    }
 
-        return new UTF8InputText(null, originalText, modifiedText, bytes, byteToOriginal, byteToModified,
-                modifiedToOriginal, charCategories, charCategoryContinuities, canBowList);
+    private int toModified(int index) {
+        return offsets.byteToModified(byteOffset + index) - charOffset;
     }
 
     public int modifiedOffset(int index) {
-        return byteToModified[index];
+        return toModified(index);
     }
 
     @Override
     public int getOriginalIndex(int index) {
-        return byteToOriginal[index];
+        return offsets.byteToOriginal(byteOffset + index) - originalOffset;
     }
 
     @Override
     public Set<CategoryType> getCharCategoryTypes(int index) {
-        return charCategories.get(byteToModified[index]);
+        return CategoryType.getTypes(getCharCategoryTypeIds(index));
     }
 
     @Override
     public Set<CategoryType> getCharCategoryTypes(int begin, int end) {
+        int ids = getCharCategoryTypeIds(begin, end);
+        return (ids == 0) ? Collections.emptySet() : CategoryType.getTypes(ids);
+    }
+
+    @Override
+    public int getCharCategoryTypeIds(int index) {
+        return charCategories[offsets.byteToModified(byteOffset + index)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The bitmask of a whole text is computed when the text is built, and that of
+     * a slice is computed at the first call.
+     */
+    @Override
+    public int getCharCategoryTypeIdsInText() {
+        if (charCategoryTypeIdsInText < 0) {
+            int ids = 0;
+            for (int i = charOffset; i < charOffset + charLength; i++) {
+                ids |= charCategories[i];
+            }
+            charCategoryTypeIdsInText = ids;
+        }
+        return charCategoryTypeIdsInText;
+    }
+
+    @Override
+    public int getCharCategoryTypeIds(int begin, int end) {
         if (begin + getCharCategoryContinuousLength(begin) < end) {
-            return Collections.emptySet();
+            return 0;
         }
-        int b = byteToModified[begin];
-        int e = byteToModified[end];
-        Set<CategoryType> continuousCategory = charCategories.get(b).clone();
+        int b = offsets.byteToModified(byteOffset + begin);
+        int e = offsets.byteToModified(byteOffset + end);
+        int continuousCategory = charCategories[b];
         for (int i = b + 1; i < e; i++) {
-            continuousCategory.retainAll(charCategories.get(i));
+            continuousCategory &= charCategories[i];
         }
         return continuousCategory;
     }
 
     @Override
     public int getCharCategoryContinuousLength(int index) {
-        return charCategoryContinuities.get(index);
+        return Math.min(charCategoryContinuities[byteOffset + index], byteLength - index);
     }
 
     @Override
     public int getCodePointsOffsetLength(int index, int codePointOffset) {
-        int length = 0;
-        int target = byteToModified[index] + codePointOffset;
-        for (int i = index; i < bytes.length; i++) {
-            if (byteToModified[i] >= target) {
-                return length;
-            }
-            length++;
-        }
-        return length;
+        int target = offsets.byteToModified(byteOffset + index) + codePointOffset;
+        int end = Math.min(offsets.modifiedToByte(target), byteOffset + byteLength);
+        return Math.max(end - byteOffset, index) - index;
     }
 
     @Override
     public int codePointCount(int begin, int end) {
-        return byteToModified[end] - byteToModified[begin];
+        return toModified(end) - toModified(begin);
     }
 
     @Override
     public boolean canBow(int index) {
-        return isCharAlignment(index) && canBowList.get(byteToModified[index]);
+        return canBowList.get(byteOffset + index);
     }
 
-    @Override
-    public int getWordCandidateLength(int index) {
-        for (int i = index + 1; i < bytes.length; i++) {
-            if (canBow(i)) {
-                return i - index;
-            }
+    /**
+     * Returns whether an atomic run begins at the specified index. A run which
+     * begins before the beginning of a slice is treated as beginning there.
+     *
+     * @param index
+     *            the index of the bytes
+     * @return {@code true} if an atomic run begins at the index
+     */
+    boolean isAtomicRunStart(int index) {
+        if (atomicRuns == null || !atomicRuns.get(byteOffset + index)) {
+            return false;
         }
-        return bytes.length - index;
+        return index == 0 || !atomicRuns.get(byteOffset + index - 1);
     }
 
-    private boolean isCharAlignment(int index) {
-        return (bytes[index] & 0xC0) != 0x80;
+    @Override
+    public int getWordCandidateLength(int index) {
+        int next = canBowList.nextSetBit(byteOffset + index + 1);
+        if (next < 0 || next >= byteOffset + byteLength) {
+            return byteLength - index;
+        }
+        return next - byteOffset - index;
     }
 
     @Override
     public int getNextInOriginal(int index) {
-        int o = modifiedToOriginal.get(index + 1);
-        while (index + 1 < modifiedText.length() + 1 && modifiedToOriginal.get(index + 1) == o) {
+        int o = textIndexToOriginalTextIndex(index + 1);
+        while (index + 1 < charLength + 1 && textIndexToOriginalTextIndex(index + 1) == o) {
             index++;
         }
         return index;
     }
 
+    /**
+     * Returns the offset in the UTF-8 representation of the original text from
+     * the offset of the original text.
+     *
+     * @param index
+     *            the offset of the original text
+     * @return the offset in the bytes of the original text
+     */
+    int getOriginalByteIndex(int index) {
+        if (originalByteOffsets == null) {
+            originalByteOffsets = OffsetMapping.build(getOriginalText(), null);
+        }
+        return originalByteOffsets.modifiedToByte(index);
+    }
+
     int textIndexToOriginalTextIndex(int index) {
-        return modifiedToOriginal.get(index);
+        return offsets.modifiedToOriginal(charOffset + index) - originalOffset;
     }
 }
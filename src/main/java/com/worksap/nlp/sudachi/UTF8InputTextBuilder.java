@@ -17,35 +17,61 @@
 package com.worksap.nlp.sudachi;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.EnumSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import com.worksap.nlp.sudachi.dictionary.CategoryType;
 import com.worksap.nlp.sudachi.dictionary.Grammar;
 
 class UTF8InputTextBuilder implements InputTextBuilder {
 
-    private final String originalText;
+    private static final int ALPHABETIC_CATEGORIES = CategoryType.ALPHA.getId() | CategoryType.GREEK.getId()
+            | CategoryType.CYRILLIC.getId();
+
+    private String originalText;
     private StringBuilder modifiedText;
-    private List<Integer> modifiedToOriginal;
+    private int[] modifiedToOriginal;
+    private int modifiedToOriginalSize;
+
+    private int[] replacementBegins = new int[0];
+    private int[] replacementEnds = new int[0];
+    private String[] replacementStrings = new String[0];
+    private int numReplacements;
+
+    // kept across reset
+    private int atomicRunCategories;
+    private int atomicRunLength;
 
     private final Grammar grammar;
 
     public UTF8InputTextBuilder(CharSequence text, Grammar grammar) {
         this.grammar = grammar;
+        modifiedText = new StringBuilder(text.length());
+        reset(text);
+    }
 
+    /**
+     * Discards the current text and starts building a new input text. The
+     * buffers of the builder are reused.
+     *
+     * @param text
+     *            the new original text
+     */
+    void reset(CharSequence text) {
         originalText = text.toString();
-        modifiedText = new StringBuilder(text);
-        modifiedToOriginal = new ArrayList<>(modifiedText.length() + 1);
+        modifiedText.setLength(0);
+        modifiedText.append(text);
+        modifiedToOriginal = null;
+        modifiedToOriginalSize = 0;
+        Arrays.fill(replacementStrings, 0, numReplacements, null);
+        numReplacements = 0;
+
         boolean isSurrogate = false;
         for (int i = 0; i < originalText.length(); i++) {
             char ch = originalText.charAt(i);
             if (isSurrogate) {
                 if (Character.isLowSurrogate(ch)) {
-                    modifiedToOriginal.add(i + 1);
                     isSurrogate = false;
                 } else {
                     throw new IllegalArgumentException("invalid UTF-16 surrogate detected");
@@ -56,14 +82,46 @@ class UTF8InputTextBuilder implements InputTextBuilder {
                 } else if (Character.isLowSurrogate(ch)) {
                     throw new IllegalArgumentException("invalid UTF-16 surrogate detected");
                 }
-                modifiedToOriginal.add(i);
             }
         }
-        modifiedToOriginal.add(originalText.length());
+    }
+
+    /**
+     * Makes the runs of the characters of the specified categories atomic. The
+     * characters of a run which is {@code minLength} characters or longer have no
+     * boundary between them, and the lattice only sees the boundaries of the run.
+     *
+     * @param categories
+     *            the bitmask of the character category types
+     * @param minLength
+     *            the minimum length of the runs in code points, or 0 to disable
+     */
+    void setAtomicRuns(int categories, int minLength) {
+        atomicRunCategories = categories;
+        atomicRunLength = minLength;
+    }
+
+    /**
+     * Creates the mapping to the original text at the first edit. Until then, the
+     * mapping is the identity except that the low surrogate of a pair is mapped
+     * to the end of the pair.
+     */
+    private void ensureModifiedToOriginal() {
+        if (modifiedToOriginal != null) {
+            return;
+        }
+        int length = originalText.length();
+        modifiedToOriginalSize = length + 1;
+        modifiedToOriginal = new int[modifiedToOriginalSize];
+        for (int i = 0; i < length; i++) {
+            modifiedToOriginal[i] = Character.isLowSurrogate(originalText.charAt(i)) ? i + 1 : i;
+        }
+        modifiedToOriginal[length] = length;
     }
 
     @Override
     public void replace(int begin, int end, String str) {
+        applyReplacements();
         if (begin < 0) {
             throw new StringIndexOutOfBoundsException(begin);
         }
@@ -83,18 +141,203 @@ class UTF8InputTextBuilder implements InputTextBuilder {
 
         modifiedText.replace(begin, end, str);
 
-        int modifiedBegin = modifiedToOriginal.get(begin);
-        int modifiedEnd = modifiedToOriginal.get(end);
+        ensureModifiedToOriginal();
+        int modifiedBegin = modifiedToOriginal[begin];
+        int modifiedEnd = modifiedToOriginal[end];
         int length = str.length();
-        if (end - begin > length) {
-            modifiedToOriginal.subList(begin + length, end).clear();
+        int newSize = modifiedToOriginalSize - (end - begin) + length;
+        if (newSize > modifiedToOriginal.length) {
+            modifiedToOriginal = Arrays.copyOf(modifiedToOriginal, Math.max(newSize, modifiedToOriginal.length * 2));
         }
-        modifiedToOriginal.set(begin, modifiedBegin);
+        System.arraycopy(modifiedToOriginal, end, modifiedToOriginal, begin + length, modifiedToOriginalSize - end);
+        modifiedToOriginalSize = newSize;
+        modifiedToOriginal[begin] = modifiedBegin;
         for (int i = 1; i < length; i++) {
-            if (begin + i < end) {
-                modifiedToOriginal.set(begin + i, modifiedEnd);
+            modifiedToOriginal[begin + i] = modifiedEnd;
+        }
+    }
+
+    /**
+     * Records a replacement to be applied by {@link #applyReplacements()}.
+     *
+     * <p>
+     * Unlike {@link #replace}, the indices are ones in the sequence before any of
+     * the recorded replacements are applied, so the callers do not have to track
+     * the shifts of the indices. The replacements must be recorded in the
+     * increasing order of the indices and must not overlap each other. All the
+     * recorded replacements are applied in a single pass over the sequence.
+     *
+     * <p>
+     * The pending replacements are also applied before {@link #replace},
+     * {@link #getText()} and {@link #build()}.
+     *
+     * @param begin
+     *            the beginning index
+     * @param end
+     *            the ending index
+     * @param str
+     *            the replacement string
+     * @throws StringIndexOutOfBoundsException
+     *             if {@code begin} is negative, greater than the length of the
+     *             sequence, or greater than {@code end}, or if the substring
+     *             overlaps the previously recorded one.
+     */
+    public void addReplacement(int begin, int end, String str) {
+        int length = modifiedText.length();
+        if (begin < 0) {
+            throw new StringIndexOutOfBoundsException(begin);
+        }
+        if (begin > length) {
+            throw new StringIndexOutOfBoundsException("begin > length()");
+        }
+        if (begin > end) {
+            throw new StringIndexOutOfBoundsException("begin > end");
+        }
+        if (begin == end) {
+            throw new IllegalArgumentException("begin == end");
+        }
+        if (numReplacements > 0 && begin < replacementEnds[numReplacements - 1]) {
+            throw new StringIndexOutOfBoundsException("overlaps the previous replacement");
+        }
+
+        if (numReplacements == replacementBegins.length) {
+            int capacity = Math.max(16, numReplacements * 2);
+            replacementBegins = Arrays.copyOf(replacementBegins, capacity);
+            replacementEnds = Arrays.copyOf(replacementEnds, capacity);
+            replacementStrings = Arrays.copyOf(replacementStrings, capacity);
+        }
+        replacementBegins[numReplacements] = begin;
+        replacementEnds[numReplacements] = Math.min(end, length);
+        replacementStrings[numReplacements] = str;
+        numReplacements++;
+    }
+
+    /**
+     * Applies all the replacements recorded by {@link #addReplacement}. The
+     * result is the same as calling {@link #replace} for each of them in order
+     * with the shifted indices.
+     */
+    public void applyReplacements() {
+        if (numReplacements == 0) {
+            return;
+        }
+        ensureModifiedToOriginal();
+
+        int newLength = modifiedText.length();
+        for (int i = 0; i < numReplacements; i++) {
+            newLength += replacementStrings[i].length() - (replacementEnds[i] - replacementBegins[i]);
+        }
+        StringBuilder newText = new StringBuilder(newLength);
+        int[] newModifiedToOriginal = new int[newLength + 1];
+
+        int position = 0;
+        int size = 0;
+        // the original index of the head of the deleted substring, which is
+        // mapped from the next character
+        int deletedHead = -1;
+        for (int i = 0; i < numReplacements; i++) {
+            int begin = replacementBegins[i];
+            int end = replacementEnds[i];
+            String str = replacementStrings[i];
+
+            if (position < begin) {
+                newText.append(modifiedText, position, begin);
+                System.arraycopy(modifiedToOriginal, position, newModifiedToOriginal, size, begin - position);
+                if (deletedHead >= 0) {
+                    newModifiedToOriginal[size] = deletedHead;
+                    deletedHead = -1;
+                }
+                size += begin - position;
+            }
+
+            int head = (deletedHead >= 0) ? deletedHead : modifiedToOriginal[begin];
+            if (str.isEmpty()) {
+                deletedHead = head;
             } else {
-                modifiedToOriginal.add(begin + i, modifiedEnd);
+                deletedHead = -1;
+                newText.append(str);
+                newModifiedToOriginal[size++] = head;
+                for (int j = 1; j < str.length(); j++) {
+                    newModifiedToOriginal[size++] = modifiedToOriginal[end];
+                }
+            }
+            position = end;
+        }
+        newText.append(modifiedText, position, modifiedText.length());
+        System.arraycopy(modifiedToOriginal, position, newModifiedToOriginal, size, modifiedToOriginalSize - position);
+        if (deletedHead >= 0) {
+            newModifiedToOriginal[size] = deletedHead;
+        }
+
+        modifiedText = newText;
+        modifiedToOriginal = newModifiedToOriginal;
+        modifiedToOriginalSize = newLength + 1;
+        Arrays.fill(replacementStrings, 0, numReplacements, null);
+        numReplacements = 0;
+    }
+
+    /**
+     * Rewrites the text by the chain of the transformers in a single pass.
+     *
+     * @param transformers
+     *            the transformers in the order of application
+     */
+    void transform(List<InputTextTransformer> transformers) {
+        applyReplacements();
+        if (transformers.isEmpty()) {
+            return;
+        }
+        ensureModifiedToOriginal();
+
+        Collector collector = new Collector(modifiedText.length());
+        for (InputTextTransformer transformer : transformers) {
+            transformer.reset();
+        }
+        for (int i = 0; i < transformers.size() - 1; i++) {
+            transformers.get(i).setNext(transformers.get(i + 1));
+        }
+        transformers.get(transformers.size() - 1).setNext(collector);
+
+        InputTextTransformer first = transformers.get(0);
+        int length = modifiedText.length();
+        for (int i = 0; i < length; i++) {
+            first.put(modifiedText.charAt(i), modifiedToOriginal[i]);
+        }
+        first.end(modifiedToOriginal[length]);
+
+        modifiedText = collector.text;
+        modifiedToOriginal = collector.origins;
+        modifiedToOriginalSize = collector.text.length() + 1;
+    }
+
+    /**
+     * Receives the output of the last transformer.
+     */
+    private static class Collector implements InputTextSink {
+        final StringBuilder text;
+        int[] origins;
+
+        Collector(int capacity) {
+            text = new StringBuilder(capacity);
+            origins = new int[capacity + 1];
+        }
+
+        @Override
+        public void put(char c, int origin) {
+            ensureCapacity(text.length() + 1);
+            origins[text.length()] = origin;
+            text.append(c);
+        }
+
+        @Override
+        public void end(int origin) {
+            ensureCapacity(text.length() + 1);
+            origins[text.length()] = origin;
+        }
+
+        private void ensureCapacity(int size) {
+            if (size >= origins.length) {
+                origins = Arrays.copyOf(origins, Math.max(size + 1, origins.length * 2));
             }
         }
     }
@@ -106,6 +349,10 @@ class UTF8InputTextBuilder implements InputTextBuilder {
 
     @Override
     public String getText() {
+        applyReplacements();
+        if (modifiedToOriginal == null) {
+            return originalText;
+        }
         return modifiedText.toString();
     }
 
@@ -113,125 +360,158 @@ class UTF8InputTextBuilder implements InputTextBuilder {
     public UTF8InputText build() {
         String modifiedStringText = getText();
         byte[] byteText = modifiedStringText.getBytes(StandardCharsets.UTF_8);
+        return build(modifiedStringText, byteText, 0, byteText.length);
+    }
 
-        int length = byteText.length;
-        int[] byteToModified = new int[length + 1];
-        int[] byteToOriginal = new int[length + 1];
-        for (int i = 0, j = 0; i < modifiedText.length(); i++) {
-            if (Character.isLowSurrogate(modifiedText.charAt(i))) {
-                continue;
-            }
-            for (int k = 0; k < utf8ByteLength(modifiedText.codePointAt(i)); k++) {
-                byteToModified[j] = i;
-                byteToOriginal[j] = modifiedToOriginal.get(i);
-                j++;
-            }
+    /**
+     * Builds the input text with the UTF-8 representation of the original text.
+     * If the text is not changed, the input text refers to {@code bytes} without
+     * encoding the text again.
+     *
+     * @param bytes
+     *            the array which contains the UTF-8 representation of the
+     *            original text
+     * @param offset
+     *            the offset of the original text in {@code bytes}
+     * @param length
+     *            the length of the original text in {@code bytes}
+     * @return the input text
+     */
+    UTF8InputText build(byte[] bytes, int offset, int length) {
+        String modifiedStringText = getText();
+        if (modifiedToOriginal != null && !modifiedStringText.equals(originalText)) {
+            return build();
         }
-        byteToModified[length] = modifiedStringText.length();
-        byteToOriginal[length] = modifiedToOriginal.get(modifiedToOriginal.size() - 1);
+        return build(modifiedStringText, bytes, offset, length);
+    }
 
-        List<EnumSet<CategoryType>> charCategories = getCharCategoryTypes(modifiedStringText);
-        List<Integer> charCategoryContinuities = getCharCategoryContinuities(modifiedStringText, length,
-                charCategories);
-        List<Boolean> canBowList = buildCanBowList(modifiedStringText, charCategories);
+    private UTF8InputText build(String modifiedStringText, byte[] bytes, int offset, int length) {
+        OffsetMapping offsets = OffsetMapping.build(modifiedStringText, modifiedToOriginal);
+        int[] charCategories = getCharCategoryTypes(modifiedStringText);
+        int charCategoryTypeIdsInText = 0;
+        for (int types : charCategories) {
+            charCategoryTypeIdsInText |= types;
+        }
+        int[] charCategoryContinuities = getCharCategoryContinuities(modifiedStringText, length, charCategories);
+        BitSet canBowList = buildCanBowList(modifiedStringText, length, charCategories);
+        BitSet atomicRuns = markAtomicRuns(modifiedStringText, length, charCategories, canBowList);
 
-        return new UTF8InputText(grammar, originalText, modifiedStringText, byteText, byteToOriginal, byteToModified,
-                Collections.unmodifiableList(modifiedToOriginal), Collections.unmodifiableList(charCategories),
-                charCategoryContinuities, Collections.unmodifiableList(canBowList));
+        return new UTF8InputText(grammar, originalText, modifiedStringText, bytes, offset, length, offsets,
+                charCategories, charCategoryContinuities, canBowList, atomicRuns, charCategoryTypeIdsInText);
     }
 
-    private List<EnumSet<CategoryType>> getCharCategoryTypes(String text) {
-        if (text.isEmpty()) {
-            return Collections.emptyList();
-        }
-        List<EnumSet<CategoryType>> charCategoryTypes = new ArrayList<>(text.length());
-        EnumSet<CategoryType> types = null;
+    private int[] getCharCategoryTypes(String text) {
+        int[] charCategoryTypes = new int[text.length()];
+        int types = 0;
         for (int i = 0; i < text.length(); i++) {
-            if (Character.isLowSurrogate(text.charAt(i)) && types != null) {
-                charCategoryTypes.add(types);
+            if (Character.isLowSurrogate(text.charAt(i)) && i > 0) {
+                charCategoryTypes[i] = types;
                 continue;
             }
-            types = grammar.getCharacterCategory().getCategoryTypes(text.codePointAt(i));
-            charCategoryTypes.add(types);
+            types = grammar.getCharacterCategory().getCategoryTypeIds(text.codePointAt(i));
+            charCategoryTypes[i] = types;
         }
         return charCategoryTypes;
     }
 
-    private List<Integer> getCharCategoryContinuities(String text, int byteLength,
-            List<EnumSet<CategoryType>> charCategories) {
-        if (text.isEmpty()) {
-            return Collections.emptyList();
-        }
-        List<Integer> charCategoryContinuities = new ArrayList<>(byteLength);
-        for (int i = 0; i < charCategories.size();) {
+    private int[] getCharCategoryContinuities(String text, int byteLength, int[] charCategories) {
+        int[] charCategoryContinuities = new int[byteLength];
+        int position = 0;
+        for (int i = 0; i < charCategories.length;) {
             int next = i + getCharCategoryContinuousLength(charCategories, i);
             int length = 0;
             for (int j = i; j < next; j = text.offsetByCodePoints(j, 1)) {
-                length += utf8ByteLength(text.codePointAt(j));
+                length += OffsetMapping.utf8ByteLength(text.codePointAt(j));
             }
             for (int k = length; k > 0; k--) {
-                charCategoryContinuities.add(k);
+                charCategoryContinuities[position++] = k;
             }
             i = next;
         }
         return charCategoryContinuities;
     }
 
-    private int getCharCategoryContinuousLength(List<EnumSet<CategoryType>> charCategories, int offset) {
+    private int getCharCategoryContinuousLength(int[] charCategories, int offset) {
         int length;
-        Set<CategoryType> continuousCategory = charCategories.get(offset).clone();
-        for (length = 1; length < charCategories.size() - offset; length++) {
-            continuousCategory.retainAll(charCategories.get(offset + length));
-            if (continuousCategory.isEmpty()) {
+        int continuousCategory = charCategories[offset];
+        for (length = 1; length < charCategories.length - offset; length++) {
+            continuousCategory &= charCategories[offset + length];
+            if (continuousCategory == 0) {
                 return length;
             }
         }
         return length;
     }
 
-    private List<Boolean> buildCanBowList(String text, List<EnumSet<CategoryType>> charCategories) {
-        if (text.isEmpty()) {
-            return Collections.emptyList();
-        }
-        List<Boolean> canBowList = new ArrayList<>(text.length());
-        for (int i = 0; i < charCategories.size(); i++) {
-            if (i == 0) {
-                canBowList.add(true);
+    private BitSet buildCanBowList(String text, int byteLength, int[] charCategories) {
+        BitSet canBowList = new BitSet(byteLength);
+        int position = 0;
+        for (int i = 0; i < charCategories.length; i++) {
+            if (Character.isLowSurrogate(text.charAt(i)) && i > 0) {
                 continue;
             }
-
-            if (Character.isLowSurrogate(text.charAt(i))) {
-                canBowList.add(false);
+            int begin = position;
+            position += OffsetMapping.utf8ByteLength(text.codePointAt(i));
+            if (i == 0) {
+                canBowList.set(begin);
                 continue;
             }
 
-            EnumSet<CategoryType> types = charCategories.get(i).clone();
-            if (types.contains(CategoryType.ALPHA) || types.contains(CategoryType.GREEK)
-                    || types.contains(CategoryType.CYRILLIC)) {
-                types.retainAll(charCategories.get(i - 1));
-                canBowList.add(types.isEmpty());
+            int types = charCategories[i];
+            if ((types & ALPHABETIC_CATEGORIES) != 0) {
+                if ((types & charCategories[i - 1]) == 0) {
+                    canBowList.set(begin);
+                }
                 continue;
             }
 
-            canBowList.add(true);
+            canBowList.set(begin);
         }
 
         return canBowList;
     }
 
-    private int utf8ByteLength(int cp) {
-        if (cp < 0) {
-            return 0;
-        } else if (cp <= 0x7F) {
-            return 1;
-        } else if (cp <= 0x7FF) {
-            return 2;
-        } else if (cp <= 0xFFFF) {
-            return 3;
-        } else if (cp <= 0x10FFFF) {
-            return 4;
-        } else {
-            return 0;
+    /**
+     * Finds the atomic runs and removes the boundaries inside them.
+     *
+     * @return the bytes of the atomic runs, or {@code null} if there is none
+     */
+    private BitSet markAtomicRuns(String text, int byteLength, int[] charCategories, BitSet canBowList) {
+        if (atomicRunLength <= 0 || atomicRunCategories == 0) {
+            return null;
+        }
+        BitSet atomicRuns = null;
+        int runBegin = 0;
+        int runLength = 0;
+        int position = 0;
+        for (int i = 0; i <= charCategories.length; i++) {
+            if (i < charCategories.length && Character.isLowSurrogate(text.charAt(i)) && i > 0) {
+                continue;
+            }
+            if (i < charCategories.length && (charCategories[i] & atomicRunCategories) != 0) {
+                if (runLength == 0) {
+                    runBegin = position;
+                }
+                runLength++;
+                position += OffsetMapping.utf8ByteLength(text.codePointAt(i));
+                continue;
+            }
+            if (runLength >= atomicRunLength) {
+                if (atomicRuns == null) {
+                    atomicRuns = new BitSet(byteLength);
+                }
+                atomicRuns.set(runBegin, position);
+                canBowList.clear(runBegin, position);
+                canBowList.set(runBegin);
+                if (position < byteLength) {
+                    canBowList.set(position);
+                }
+            }
+            runLength = 0;
+            if (i < charCategories.length) {
+                position += OffsetMapping.utf8ByteLength(text.codePointAt(i));
+            }
         }
+        return atomicRuns;
     }
 }
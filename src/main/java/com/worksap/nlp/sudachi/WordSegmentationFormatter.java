@@ -73,4 +73,36 @@ public class WordSegmentationFormatter extends MorphemeFormatterPlugin {
         }
         output.print(eosString);
     }
+
+    /**
+     * Prints a sentence from the boundaries of its morphemes.
+     *
+     * @param text
+     *            the input text
+     * @param boundaries
+     *            the boundaries of the morphemes in {@code text}
+     * @param output
+     *            the output
+     * @see Tokenizer#tokenizeSentenceBoundaries(Tokenizer.SplitMode, String)
+     */
+    void printSentence(String text, int[] boundaries, PrintStream output) {
+        boolean isFirst = true;
+        for (int i = 1; i < boundaries.length; i++) {
+            int begin = boundaries[i - 1];
+            int end = boundaries[i];
+            if (begin == end) {
+                continue;
+            }
+            if (end - begin == delimiter.length() && text.startsWith(delimiter, begin)) {
+                continue;
+            }
+            if (isFirst) {
+                isFirst = false;
+            } else {
+                output.print(delimiter);
+            }
+            output.append(text, begin, end);
+        }
+        output.print(eosString);
+    }
 }
@@ -16,6 +16,9 @@
 
 package com.worksap.nlp.sudachi.dictionary;
 
+import java.util.EnumSet;
+import java.util.List;
+
 /**
  * Categories of characters.
  *
@@ -93,4 +96,43 @@ public enum CategoryType {
         }
         return null;
     }
+
+    /**
+     * Returns the set of the categories whose IDs are contained in the specified
+     * bitmask.
+     *
+     * @param ids
+     *            the bitmask of the ID numbers of categories
+     * @return the set of the categories
+     */
+    public static EnumSet<CategoryType> getTypes(int ids) {
+        EnumSet<CategoryType> types = EnumSet.noneOf(CategoryType.class);
+        for (CategoryType type : CategoryType.values()) {
+            if ((ids & type.getId()) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Returns the bitmask of the IDs of the categories with the specified names.
+     *
+     * @param names
+     *            the names of categories
+     * @return the bitmask of the ID numbers of the categories
+     * @throws IllegalArgumentException
+     *             if a name is not the name of a category
+     */
+    public static int parseIds(List<String> names) {
+        int ids = 0;
+        for (String name : names) {
+            try {
+                ids |= valueOf(name).getId();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + " is invalid character category type", e);
+            }
+        }
+        return ids;
+    }
 }
@@ -21,8 +21,12 @@ import com.worksap.nlp.sudachi.Config;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 /**
@@ -34,6 +38,7 @@ public class CharacterCategory {
         int low;
         int high;
         EnumSet<CategoryType> categories = EnumSet.noneOf(CategoryType.class);
+        int categoryIds;
 
         boolean contains(int cp) {
             return cp >= low && cp <= high;
@@ -53,8 +58,23 @@ public class CharacterCategory {
     private static final Pattern PATTERN_SPACES = Pattern.compile("\\s+");
     private static final Pattern PATTERN_EMPTY_OR_SPACES = Pattern.compile("\\s*");
     private static final Pattern PATTERN_DOUBLE_PERIODS = Pattern.compile("\\.\\.");
+    private static final int BMP_SIZE = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+    private static final Set<CategoryType> DEFAULT_SET = Collections
+            .unmodifiableSet(EnumSet.of(CategoryType.DEFAULT));
     private final List<Range> rangeList = new ArrayList<>();
 
+    /**
+     * The compiled definitions. Each code point is mapped to the index of its
+     * combination of the categories. The code points in the BMP are looked up
+     * directly, and the others are looked up from the sorted starts of the
+     * intervals in which the categories do not change.
+     */
+    private char[] bmpCombinations;
+    private int[] supplementaryStarts;
+    private char[] supplementaryCombinations;
+    private int[] combinationIds;
+    private Set<CategoryType>[] combinationSets;
+
     /**
      * Returns the set of the category types of the character (Unicode code point).
      *
@@ -63,17 +83,134 @@ public class CharacterCategory {
      * @return the set of the category types of the character
      */
     public EnumSet<CategoryType> getCategoryTypes(int codePoint) {
-        EnumSet<CategoryType> categories = EnumSet.noneOf(CategoryType.class);
+        return EnumSet.copyOf(getCategoryTypeSet(codePoint));
+    }
+
+    /**
+     * Returns the unmodifiable set of the category types of the character
+     * (Unicode code point). The returned set is shared between the characters
+     * which have the same categories.
+     *
+     * @param codePoint
+     *            the code point value of the character
+     * @return the set of the category types of the character
+     */
+    public Set<CategoryType> getCategoryTypeSet(int codePoint) {
+        if (combinationSets == null) {
+            return DEFAULT_SET;
+        }
+        return combinationSets[getCombination(codePoint)];
+    }
+
+    /**
+     * Returns the category types of the character (Unicode code point) as a
+     * bitmask of {@link CategoryType#getId()}.
+     *
+     * @param codePoint
+     *            the code point value of the character
+     * @return the bitmask of the category types of the character
+     */
+    public int getCategoryTypeIds(int codePoint) {
+        if (combinationIds == null) {
+            return CategoryType.DEFAULT.getId();
+        }
+        return combinationIds[getCombination(codePoint)];
+    }
+
+    private int getCombination(int codePoint) {
+        if (codePoint < 0) {
+            return 0;
+        }
+        if (codePoint < BMP_SIZE) {
+            return bmpCombinations[codePoint];
+        }
+        int index = Arrays.binarySearch(supplementaryStarts, codePoint);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return supplementaryCombinations[index];
+    }
+
+    /**
+     * Compiles the ranges into the lookup tables.
+     */
+    @SuppressWarnings("unchecked")
+    private void compile() {
+        Combinations combinations = new Combinations();
+        combinations.of(0); // the characters in no range
+
+        int[] bmpIds = new int[BMP_SIZE];
         for (Range range : rangeList) {
-            if (range.contains(codePoint)) {
-                categories.addAll(range.categories);
+            for (int cp = Math.max(range.low, 0); cp <= Math.min(range.high, BMP_SIZE - 1); cp++) {
+                bmpIds[cp] |= range.categoryIds;
+            }
+        }
+        char[] bmp = new char[BMP_SIZE];
+        for (int cp = 0; cp < BMP_SIZE; cp++) {
+            bmp[cp] = combinations.of(bmpIds[cp]);
+        }
+
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(BMP_SIZE);
+        for (Range range : rangeList) {
+            if (range.high >= BMP_SIZE) {
+                boundaries.add(Math.max(range.low, BMP_SIZE));
+                boundaries.add(range.high + 1);
+            }
+        }
+        int[] starts = new int[boundaries.size()];
+        char[] supplementary = new char[boundaries.size()];
+        int i = 0;
+        for (int start : boundaries) {
+            int categories = 0;
+            for (Range range : rangeList) {
+                if (range.contains(start)) {
+                    categories |= range.categoryIds;
+                }
+            }
+            starts[i] = start;
+            supplementary[i] = combinations.of(categories);
+            i++;
+        }
+
+        int[] ids = new int[combinations.size];
+        Set<CategoryType>[] sets = (Set<CategoryType>[]) new Set<?>[combinations.size];
+        for (i = 0; i < ids.length; i++) {
+            int categories = combinations.ids[i];
+            if (categories == 0) {
+                categories = CategoryType.DEFAULT.getId();
             }
+            ids[i] = categories;
+            sets[i] = Collections.unmodifiableSet(CategoryType.getTypes(categories));
         }
 
-        if (categories.isEmpty()) {
-            categories.add(CategoryType.DEFAULT);
+        bmpCombinations = bmp;
+        supplementaryStarts = starts;
+        supplementaryCombinations = supplementary;
+        combinationIds = ids;
+        combinationSets = sets;
+    }
+
+    /**
+     * Assigns the consecutive indices to the combinations of the categories.
+     */
+    private static class Combinations {
+        final char[] indices = new char[1 << CategoryType.values().length];
+        int[] ids = new int[16];
+        int size;
+
+        char of(int categories) {
+            char index = indices[categories];
+            if (index == 0 && (size == 0 || categories != 0)) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size] = categories;
+                index = (char) size++;
+                indices[categories] = index;
+            }
+            return index;
         }
-        return categories;
     }
 
     /**
@@ -142,10 +279,12 @@ public class CharacterCategory {
                                 cols[i] + " is invalid type at line " + reader.getLineNumber(), e);
                     }
                     range.categories.add(type);
+                    range.categoryIds |= type.getId();
                 }
                 rangeList.add(range);
             }
         }
+        compile();
     }
 
     public static CharacterCategory load(Config.Resource<CharacterCategory> resource) throws IOException {
@@ -144,11 +144,77 @@ public class DoubleArrayLexicon implements Lexicon {
         return wordParams.getCost(wordId);
     }
 
+    @Override
+    public long getParameters(int wordId) {
+        return wordParams.getParameters(wordId);
+    }
+
     @Override
     public WordInfo getWordInfo(int wordId) {
         return wordInfos.getWordInfo(wordId);
     }
 
+    /**
+     * Returns the length of the headword in utf-8 bytes of the morpheme specified
+     * by the word ID. Unlike {@link #getWordInfo(int)}, this method does not decode
+     * the strings of the morpheme.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the length of the headword
+     */
+    @Override
+    public short getHeadwordLength(int wordId) {
+        return wordInfos.getHeadwordLength(wordId);
+    }
+
+    /**
+     * Returns the ID of the part of speech of the morpheme specified by the word
+     * ID without decoding the strings of the morpheme. The ID of a user defined
+     * part of speech is not converted.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the ID of the part of speech
+     */
+    @Override
+    public short getPOSId(int wordId) {
+        return wordInfos.getPOSId(wordId);
+    }
+
+    /**
+     * Compares the normalized form of the morpheme specified by the word ID with
+     * the specified string in the dictionary without decoding it.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param form
+     *            the string to compare with
+     * @return {@code true} if the normalized form is equal to {@code form}
+     */
+    @Override
+    public boolean normalizedFormEquals(int wordId, CharSequence form) {
+        return wordInfos.normalizedFormEquals(wordId, form);
+    }
+
+    /**
+     * Reads the split of the morpheme specified by the word ID without decoding
+     * its {@link WordInfo}. The dictionary parts of the word IDs are not converted.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param mode
+     *            {@link Tokenizer.SplitMode#A} or {@link Tokenizer.SplitMode#B}
+     * @param output
+     *            the array to store the word IDs into, must have at least 255
+     *            elements
+     * @return the number of the word IDs in the split
+     */
+    @Override
+    public int readSplit(int wordId, Tokenizer.SplitMode mode, int[] output) {
+        return wordInfos.readSplit(wordId, mode, output);
+    }
+
     @Override
     public int size() {
         return wordParams.size();
@@ -160,15 +226,29 @@ public class DoubleArrayLexicon implements Lexicon {
                 continue;
             }
             String surface = getWordInfo(wordId).getSurface();
-            MorphemeList ms = tokenizer.tokenize(surface);
-            int cost = ms.getInternalCost() + USER_DICT_COST_PAR_MORPH * ms.size();
-            if (cost > Short.MAX_VALUE) {
-                cost = Short.MAX_VALUE;
-            } else if (cost < Short.MIN_VALUE) {
-                cost = Short.MIN_VALUE;
-            }
-            wordParams.setCost(wordId, (short) cost);
+            wordParams.setCost(wordId, calculateCost(tokenizer, surface));
+        }
+    }
+
+    /**
+     * Calculates the cost of a user word which does not specify its cost from the
+     * analysis of its surface.
+     *
+     * @param tokenizer
+     *            the tokenizer to analyze the surface with
+     * @param surface
+     *            the surface of the word
+     * @return the cost of the word
+     */
+    public static short calculateCost(Tokenizer tokenizer, String surface) {
+        MorphemeList ms = tokenizer.tokenize(surface);
+        int cost = ms.getInternalCost() + USER_DICT_COST_PAR_MORPH * ms.size();
+        if (cost > Short.MAX_VALUE) {
+            cost = Short.MAX_VALUE;
+        } else if (cost < Short.MIN_VALUE) {
+            cost = Short.MIN_VALUE;
         }
+        return (short) cost;
     }
 
     public void setDictionaryId(int id) {
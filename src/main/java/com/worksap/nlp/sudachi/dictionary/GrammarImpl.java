@@ -28,6 +28,11 @@ public class GrammarImpl implements Grammar {
 
     private final ByteBuffer bytes;
     private final List<POS> posList;
+    /**
+     * the grammar which owns the connection costs and the character categories
+     * shared by this view, or {@code null} if this is not a view
+     */
+    private final GrammarImpl base;
     private final short originalPosSize;
     private boolean isCopiedConnectTable;
     private Connection matrix;
@@ -39,6 +44,7 @@ public class GrammarImpl implements Grammar {
     public GrammarImpl(ByteBuffer bytes, int offset) {
         int originalOffset = offset;
         this.bytes = bytes;
+        base = null;
         isCopiedConnectTable = false;
         int posSize = bytes.getShort(offset);
         offset += 2;
@@ -68,6 +74,19 @@ public class GrammarImpl implements Grammar {
         bytes = ByteBuffer.allocate(0);
         posList = Collections.emptyList();
         originalPosSize = 0;
+        base = null;
+    }
+
+    private GrammarImpl(GrammarImpl base, List<POS> posList) {
+        this.base = base;
+        bytes = base.bytes;
+        this.posList = posList;
+        originalPosSize = base.originalPosSize;
+        storageSize = base.storageSize;
+    }
+
+    private GrammarImpl root() {
+        return base == null ? this : base;
     }
 
     public int storageSize() {
@@ -78,6 +97,40 @@ public class GrammarImpl implements Grammar {
         posList.addAll(grammar.posList);
     }
 
+    /**
+     * Creates a view of this grammar whose parts of speech are the first
+     * {@code size} ones of this grammar followed by the ones of the specified
+     * grammars of the user dictionaries. The view shares the connection costs and
+     * the character categories with this grammar, and this grammar is not
+     * modified.
+     *
+     * @param size
+     *            the number of the parts of speech to keep
+     * @param grammars
+     *            the grammars of the user dictionaries
+     * @return the view of this grammar
+     */
+    public GrammarImpl withUserPosList(int size, List<GrammarImpl> grammars) {
+        GrammarImpl root = root();
+        List<POS> list = new ArrayList<>(root.posList.subList(0, size));
+        for (GrammarImpl grammar : grammars) {
+            list.addAll(grammar.posList);
+        }
+        return new GrammarImpl(root, list);
+    }
+
+    /**
+     * Returns whether this grammar and the specified one are the same grammar or
+     * the views of the same grammar.
+     *
+     * @param other
+     *            the grammar to compare with
+     * @return {@code true} if they share the connection costs
+     */
+    public boolean isViewOf(GrammarImpl other) {
+        return root() == other.root();
+    }
+
     @Override
     public int getPartOfSpeechSize() {
         return posList.size();
@@ -101,16 +154,17 @@ public class GrammarImpl implements Grammar {
 
     @Override
     public short getConnectCost(short left, short right) {
-        return matrix.cost(left, right);
+        return root().matrix.cost(left, right);
     }
 
     @Override
     public void setConnectCost(short left, short right, short cost) {
-        if (!isCopiedConnectTable) {
-            matrix = matrix.ownedCopy();
-            isCopiedConnectTable = true;
+        GrammarImpl root = root();
+        if (!root.isCopiedConnectTable) {
+            root.matrix = root.matrix.ownedCopy();
+            root.isCopiedConnectTable = true;
         }
-        matrix.setCost(left, right, cost);
+        root.matrix.setCost(left, right, cost);
     }
 
     @Override
@@ -125,12 +179,12 @@ public class GrammarImpl implements Grammar {
 
     @Override
     public CharacterCategory getCharacterCategory() {
-        return charCategory;
+        return root().charCategory;
     }
 
     @Override
     public void setCharacterCategory(CharacterCategory charCategory) {
-        this.charCategory = charCategory;
+        root().charCategory = charCategory;
     }
 
     private String bufferToString(int offset) {
@@ -143,7 +197,7 @@ public class GrammarImpl implements Grammar {
     }
 
     public Connection getConnection() {
-        return this.matrix;
+        return root().matrix;
     }
 
     /**
@@ -167,10 +221,10 @@ public class GrammarImpl implements Grammar {
 
     @Override
     public boolean isValid() {
-        return matrix != null;
+        return root().matrix != null;
     }
 
     public void invalidate() {
-        matrix = null;
+        root().matrix = null;
     }
 }
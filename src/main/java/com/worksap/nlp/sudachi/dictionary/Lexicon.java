@@ -16,6 +16,7 @@
 
 package com.worksap.nlp.sudachi.dictionary;
 
+import com.worksap.nlp.sudachi.Tokenizer;
 import com.worksap.nlp.sudachi.WordId;
 
 import java.util.Iterator;
@@ -65,6 +66,21 @@ public interface Lexicon {
      */
     short getCost(int wordId);
 
+    /**
+     * Returns the left-ID, the right-ID and the word occurrence cost of the
+     * morpheme specified by the word ID at once.
+     *
+     * <p>
+     * when the word ID is out of range, the behavior is undefined.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the parameters packed by {@link WordParameters}
+     */
+    default long getParameters(int wordId) {
+        return WordParameters.make(getLeftId(wordId), getRightId(wordId), getCost(wordId));
+    }
+
     /**
      * Returns the informations of the morpheme specified by the word ID.
      *
@@ -78,6 +94,80 @@ public interface Lexicon {
      */
     WordInfo getWordInfo(int wordId);
 
+    /**
+     * Returns the length of the headword in utf-8 bytes of the morpheme specified
+     * by the word ID.
+     *
+     * <p>
+     * Implementations may override this to avoid decoding the whole
+     * {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the length of the headword
+     */
+    default short getHeadwordLength(int wordId) {
+        return getWordInfo(wordId).getLength();
+    }
+
+    /**
+     * Returns the ID of the part of speech of the morpheme specified by the word
+     * ID.
+     *
+     * <p>
+     * Implementations may override this to avoid decoding the whole
+     * {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the ID of the part of speech
+     */
+    default short getPOSId(int wordId) {
+        return getWordInfo(wordId).getPOSId();
+    }
+
+    /**
+     * Returns whether the normalized form of the morpheme specified by the word
+     * ID is equal to the specified string.
+     *
+     * <p>
+     * Implementations may override this to avoid decoding the whole
+     * {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param form
+     *            the string to compare with
+     * @return {@code true} if the normalized form is equal to {@code form}
+     */
+    default boolean normalizedFormEquals(int wordId, CharSequence form) {
+        return getWordInfo(wordId).getNormalizedForm().contentEquals(form);
+    }
+
+    /**
+     * Reads the A or B unit split of the morpheme specified by the word ID into
+     * {@code output}.
+     *
+     * <p>
+     * Implementations may override this to avoid decoding the whole
+     * {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param mode
+     *            {@link Tokenizer.SplitMode#A} or {@link Tokenizer.SplitMode#B}
+     * @param output
+     *            the array to store the word IDs into, must have at least 255
+     *            elements
+     * @return the number of the word IDs in the split
+     */
+    default int readSplit(int wordId, Tokenizer.SplitMode mode, int[] output) {
+        WordInfo wordInfo = getWordInfo(wordId);
+        int[] split = (mode == Tokenizer.SplitMode.A) ? wordInfo.getAunitSplit() : wordInfo.getBunitSplit();
+        System.arraycopy(split, 0, output, 0, split.length);
+        return split.length;
+    }
+
     /**
      * Returns the ID of the dictionary containing the morpheme specified by the
      * word ID.
@@ -16,6 +16,7 @@
 
 package com.worksap.nlp.sudachi.dictionary;
 
+import com.worksap.nlp.sudachi.Tokenizer;
 import com.worksap.nlp.sudachi.WordId;
 
 import java.util.*;
@@ -126,6 +127,11 @@ public class LexiconSet implements Lexicon {
         return lexicons.get(WordId.dic(wordId)).getCost(getWordId(wordId));
     }
 
+    @Override
+    public long getParameters(int wordId) {
+        return lexicons.get(WordId.dic(wordId)).getParameters(getWordId(wordId));
+    }
+
     @Override
     public WordInfo getWordInfo(int wordId) {
         int dictionaryId = WordId.dic(wordId);
@@ -141,6 +147,73 @@ public class LexiconSet implements Lexicon {
         return wordInfo;
     }
 
+    /**
+     * Returns the length of the headword in utf-8 bytes of the morpheme specified
+     * by the word ID without decoding its {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the length of the headword
+     */
+    @Override
+    public short getHeadwordLength(int wordId) {
+        return lexicons.get(WordId.dic(wordId)).getHeadwordLength(getWordId(wordId));
+    }
+
+    /**
+     * Returns the ID of the part of speech of the morpheme specified by the word
+     * ID without decoding its {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the ID of the part of speech
+     */
+    @Override
+    public short getPOSId(int wordId) {
+        int dictionaryId = WordId.dic(wordId);
+        short posId = lexicons.get(dictionaryId).getPOSId(getWordId(wordId));
+        if (dictionaryId > 0 && posId >= systemPartOfSpeechSize) { // user defined part-of-speech
+            return (short) (posId - systemPartOfSpeechSize + posOffsets.get(dictionaryId));
+        }
+        return posId;
+    }
+
+    /**
+     * Returns whether the normalized form of the morpheme specified by the word
+     * ID is equal to the specified string without decoding its {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param form
+     *            the string to compare with
+     * @return {@code true} if the normalized form is equal to {@code form}
+     */
+    @Override
+    public boolean normalizedFormEquals(int wordId, CharSequence form) {
+        return lexicons.get(WordId.dic(wordId)).normalizedFormEquals(getWordId(wordId), form);
+    }
+
+    /**
+     * Reads the A or B unit split of the morpheme specified by the word ID without
+     * decoding its {@link WordInfo}.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param mode
+     *            {@link Tokenizer.SplitMode#A} or {@link Tokenizer.SplitMode#B}
+     * @param output
+     *            the array to store the word IDs into, must have at least 255
+     *            elements
+     * @return the number of the word IDs in the split
+     */
+    @Override
+    public int readSplit(int wordId, Tokenizer.SplitMode mode, int[] output) {
+        int dictionaryId = WordId.dic(wordId);
+        int length = lexicons.get(dictionaryId).readSplit(getWordId(wordId), mode, output);
+        convertSplit(output, length, dictionaryId);
+        return length;
+    }
+
     @Override
     public int size() {
         return lexicons.stream().mapToInt(Lexicon::size).sum();
@@ -158,7 +231,11 @@ public class LexiconSet implements Lexicon {
     }
 
     private void convertSplit(int[] split, int dictionaryId) {
-        for (int i = 0; i < split.length; i++) {
+        convertSplit(split, split.length, dictionaryId);
+    }
+
+    private void convertSplit(int[] split, int length, int dictionaryId) {
+        for (int i = 0; i < length; i++) {
             if (WordId.dic(split[i]) > 0) {
                 split[i] = buildWordId(dictionaryId, getWordId(split[i]));
             }
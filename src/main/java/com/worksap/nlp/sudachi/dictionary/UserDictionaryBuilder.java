@@ -16,6 +16,9 @@
 
 package com.worksap.nlp.sudachi.dictionary;
 
+import com.worksap.nlp.sudachi.Config;
+import com.worksap.nlp.sudachi.DictionaryFactory;
+import com.worksap.nlp.sudachi.JapaneseDictionary;
 import com.worksap.nlp.sudachi.dictionary.build.DicBuilder;
 import com.worksap.nlp.sudachi.dictionary.build.Progress;
 
@@ -36,10 +39,12 @@ import java.util.List;
 public class UserDictionaryBuilder {
     static void printUsage() {
         Console console = System.console();
-        console.printf("usage: UserDictionaryBuilder -o file -s file [-d description] files...\n");
+        console.printf("usage: UserDictionaryBuilder -o file -s file [-d description] [-c] [-r file] files...\n");
         console.printf("\t-o file\toutput to file\n");
         console.printf("\t-s file\tsystem dictionary\n");
         console.printf("\t-d description\tcomment\n");
+        console.printf("\t-c\tcalculate the costs of the words without costs\n");
+        console.printf("\t-r file\tsettings to calculate the costs with\n");
     }
 
     /**
@@ -51,6 +56,11 @@ public class UserDictionaryBuilder {
      * <li>{@code -s file} the path of the system dictionary</li>
      * <li>{@code -d string} (optional) the description which is embedded in the
      * dictionary</li>
+     * <li>{@code -c} (optional) calculate the costs of the words whose cost is
+     * {@code -32768} and embed them in the dictionary, instead of calculating them
+     * at each load</li>
+     * <li>{@code -r file} (optional) the path of the settings to calculate the
+     * costs with. The default settings are used if not specified.</li>
      * <li>the paths of the source file in the CSV format</li>
      * </ol>
      *
@@ -63,6 +73,8 @@ public class UserDictionaryBuilder {
         String description = "";
         Path outputPath = null;
         String sysDictPath = null;
+        boolean calculateCosts = false;
+        Path settingsPath = null;
 
         int i;
         for (i = 0; i < args.length; i++) {
@@ -72,6 +84,10 @@ public class UserDictionaryBuilder {
                 sysDictPath = args[++i];
             } else if (args[i].equals("-d") && i + 1 < args.length) {
                 description = args[++i];
+            } else if (args[i].equals("-c")) {
+                calculateCosts = true;
+            } else if (args[i].equals("-r") && i + 1 < args.length) {
+                settingsPath = Paths.get(args[++i]);
             } else if (args[i].equals("-h")) {
                 printUsage();
                 return;
@@ -95,10 +111,26 @@ public class UserDictionaryBuilder {
                 builder.lexicon(Paths.get(lexicon));
             }
 
-            try (SeekableByteChannel channel = Files.newByteChannel(outputPath, StandardOpenOption.WRITE,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-                builder.build(channel);
+            if (!calculateCosts) {
+                build(builder, outputPath);
+                return;
+            }
+            Config config = Config.defaultConfig();
+            if (settingsPath != null) {
+                config = Config.fromFile(settingsPath).withFallback(config);
+            }
+            config.clearUserDictionaries().systemDictionary(Paths.get(sysDictPath));
+            try (JapaneseDictionary dictionary = (JapaneseDictionary) new DictionaryFactory().create(config)) {
+                builder.calculateCosts(dictionary.createCostTokenizer());
+                build(builder, outputPath);
             }
         }
     }
+
+    private static void build(DicBuilder.User builder, Path outputPath) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(outputPath, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            builder.build(channel);
+        }
+    }
 }
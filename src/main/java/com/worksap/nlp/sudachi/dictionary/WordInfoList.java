@@ -19,12 +19,20 @@ package com.worksap.nlp.sudachi.dictionary;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
+import com.worksap.nlp.sudachi.Tokenizer;
+
 class WordInfoList {
 
     private final ByteBuffer bytes;
     private final int offset;
     private final int wordSize;
     private final boolean hasSynonymGid;
+    /**
+     * the headword lengths and the splits of all words, decoded at the first
+     * split. It takes 6 bytes per word, and 8 bytes plus 4 bytes per word ID of
+     * the splits for each word with A or B unit splits.
+     */
+    private volatile WordSplitTable splitTable;
 
     WordInfoList(ByteBuffer bytes, int offset, int wordSize, boolean hasSysnoymGid) {
         this.bytes = bytes;
@@ -69,6 +77,121 @@ class WordInfoList {
                 readingForm, aUnitSplit, bUnitSplit, wordStructure, synonymGids);
     }
 
+    /**
+     * Returns the length of the headword in utf-8 bytes without decoding the
+     * other fields.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the length of the headword
+     */
+    short getHeadwordLength(int wordId) {
+        WordSplitTable table = splitTable;
+        if (table != null) {
+            return table.getHeadwordLength(wordId);
+        }
+        int position = skipString(wordIdToOffset(wordId)); // surface
+        return (short) stringLengthAt(position);
+    }
+
+    /**
+     * Returns the ID of the part of speech without decoding the other fields.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @return the ID of the part of speech
+     */
+    short getPOSId(int wordId) {
+        int position = skipString(wordIdToOffset(wordId)); // surface
+        position = skipStringLength(position); // headword length
+        return bytes.getShort(position);
+    }
+
+    /**
+     * Compares the normalized form with the specified string without decoding
+     * it. An empty normalized form in the dictionary means the surface.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param form
+     *            the string to compare with
+     * @return {@code true} if the normalized form is equal to {@code form}
+     */
+    boolean normalizedFormEquals(int wordId, CharSequence form) {
+        int surface = wordIdToOffset(wordId);
+        int position = skipString(surface); // surface
+        position = skipStringLength(position); // headword length
+        position += 2; // POS ID
+        if (stringLengthAt(position) == 0) {
+            position = surface;
+        }
+        return stringEquals(position, form);
+    }
+
+    private boolean stringEquals(int position, CharSequence str) {
+        int length = stringLengthAt(position);
+        if (length != str.length()) {
+            return false;
+        }
+        position = skipStringLength(position);
+        for (int i = 0; i < length; i++) {
+            if (bytes.getChar(position + 2 * i) != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the A or B unit split of the morpheme into {@code output} without
+     * decoding the other fields.
+     *
+     * @param wordId
+     *            the word ID of the morpheme
+     * @param mode
+     *            {@link Tokenizer.SplitMode#A} or {@link Tokenizer.SplitMode#B}
+     * @param output
+     *            the array to store the word IDs into, must have at least 255
+     *            elements
+     * @return the number of the word IDs in the split
+     */
+    int readSplit(int wordId, Tokenizer.SplitMode mode, int[] output) {
+        return getSplitTable().readSplit(wordId, mode, output);
+    }
+
+    private WordSplitTable getSplitTable() {
+        WordSplitTable table = splitTable;
+        if (table == null) {
+            synchronized (this) {
+                table = splitTable;
+                if (table == null) {
+                    table = buildSplitTable();
+                    splitTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    private WordSplitTable buildSplitTable() {
+        WordSplitTable.Builder builder = new WordSplitTable.Builder(wordSize);
+        int[] aUnitSplit = new int[256];
+        int[] bUnitSplit = new int[256];
+        for (int wordId = 0; wordId < wordSize; wordId++) {
+            int position = skipString(wordIdToOffset(wordId)); // surface
+            builder.setHeadwordLength(wordId, (short) stringLengthAt(position));
+            position = skipStringLength(position); // headword length
+            position += 2; // POS ID
+            position = skipString(position); // normalized form
+            position += 4; // dictionary form word ID
+            position = skipString(position); // reading form
+            position = readIntArray(position, aUnitSplit);
+            readIntArray(position, bUnitSplit);
+            builder.setSplits(wordId, aUnitSplit, bUnitSplit);
+        }
+        return builder.build();
+    }
+
     int size() {
         return wordSize;
     }
@@ -87,6 +210,35 @@ class WordInfoList {
         return length;
     }
 
+    private int stringLengthAt(int position) {
+        byte length = bytes.get(position);
+        if (length < 0) {
+            int high = Byte.toUnsignedInt(length);
+            int low = Byte.toUnsignedInt(bytes.get(position + 1));
+            return ((high & 0x7F) << 8) | low;
+        }
+        return length;
+    }
+
+    private int skipStringLength(int position) {
+        return (bytes.get(position) < 0) ? position + 2 : position + 1;
+    }
+
+    private int skipString(int position) {
+        return skipStringLength(position) + 2 * stringLengthAt(position);
+    }
+
+    private int readIntArray(int position, int[] output) {
+        int length = Byte.toUnsignedInt(bytes.get(position));
+        position += 1;
+        output[0] = length;
+        for (int i = 1; i <= length; i++) {
+            output[i] = bytes.getInt(position);
+            position += 4;
+        }
+        return position;
+    }
+
     private String bufferToString(ByteBuffer buffer) {
         int length = bufferToStringLength(buffer);
         char[] str = new char[length];
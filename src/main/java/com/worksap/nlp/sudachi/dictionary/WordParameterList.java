@@ -56,6 +56,12 @@ class WordParameterList {
         return bytes.getShort(offset + ELEMENT_SIZE * wordId + 4);
     }
 
+    long getParameters(int wordId) {
+        // the record is read with two loads; the buffer is always in little endian
+        int position = offset + ELEMENT_SIZE * wordId;
+        return (bytes.getInt(position) & 0xffff_ffffL) | ((bytes.getShort(position + 4) & 0xffffL) << 32);
+    }
+
     void setCost(int wordId, short cost) {
         if (!isCopied) {
             copyBuffer();
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi.dictionary;
+
+/**
+ * The left-ID, the right-ID and the word occurrence cost of a morpheme packed
+ * into a {@code long}.
+ *
+ * <p>
+ * The left-ID is stored in the bits 0-15, the right-ID in the bits 16-31 and
+ * the cost in the bits 32-47, which is the same layout as the parameters in the
+ * binary dictionary read in little endian.
+ *
+ * @see Lexicon#getParameters(int)
+ */
+public final class WordParameters {
+    private WordParameters() {
+    }
+
+    /**
+     * Packs the parameters of a morpheme.
+     *
+     * @param leftId
+     *            the left-ID
+     * @param rightId
+     *            the right-ID
+     * @param cost
+     *            the word occurrence cost
+     * @return the packed parameters
+     */
+    public static long make(short leftId, short rightId, short cost) {
+        return (leftId & 0xffffL) | ((rightId & 0xffffL) << 16) | ((cost & 0xffffL) << 32);
+    }
+
+    /**
+     * Extracts the left-ID from the packed parameters
+     *
+     * @param parameters
+     *            the packed parameters
+     * @return the left-ID
+     */
+    public static short leftId(long parameters) {
+        return (short) parameters;
+    }
+
+    /**
+     * Extracts the right-ID from the packed parameters
+     *
+     * @param parameters
+     *            the packed parameters
+     * @return the right-ID
+     */
+    public static short rightId(long parameters) {
+        return (short) (parameters >>> 16);
+    }
+
+    /**
+     * Extracts the word occurrence cost from the packed parameters
+     *
+     * @param parameters
+     *            the packed parameters
+     * @return the word occurrence cost
+     */
+    public static short cost(long parameters) {
+        return (short) (parameters >>> 32);
+    }
+}
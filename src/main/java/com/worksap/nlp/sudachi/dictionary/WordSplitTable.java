@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi.dictionary;
+
+import java.util.Arrays;
+
+import com.worksap.nlp.sudachi.Tokenizer;
+
+/**
+ * A compact table of the headword lengths and the A/B unit splits of the
+ * words in a dictionary.
+ *
+ * <p>
+ * The splits of all words are stored in a single array. For each word with a
+ * split, the array contains the length of the A unit split, the word IDs of
+ * it, the length of the B unit split, and the word IDs of it. Words without
+ * splits share the entry at the beginning of the array.
+ */
+class WordSplitTable {
+
+    private final short[] headwordLengths;
+    private final int[] splitOffsets;
+    private final int[] splits;
+
+    private WordSplitTable(short[] headwordLengths, int[] splitOffsets, int[] splits) {
+        this.headwordLengths = headwordLengths;
+        this.splitOffsets = splitOffsets;
+        this.splits = splits;
+    }
+
+    short getHeadwordLength(int wordId) {
+        return headwordLengths[wordId];
+    }
+
+    int readSplit(int wordId, Tokenizer.SplitMode mode, int[] output) {
+        int position = splitOffsets[wordId];
+        if (mode == Tokenizer.SplitMode.B) {
+            position += splits[position] + 1;
+        }
+        int length = splits[position];
+        System.arraycopy(splits, position + 1, output, 0, length);
+        return length;
+    }
+
+    static class Builder {
+        private final short[] headwordLengths;
+        private final int[] splitOffsets;
+        private int[] splits = new int[1024];
+        private int size = 2; // the empty splits shared by all words
+
+        Builder(int wordSize) {
+            headwordLengths = new short[wordSize];
+            splitOffsets = new int[wordSize];
+        }
+
+        void setHeadwordLength(int wordId, short length) {
+            headwordLengths[wordId] = length;
+        }
+
+        /**
+         * Appends the splits of the word. {@code aUnitSplit} and {@code bUnitSplit}
+         * contain the length of the split followed by the word IDs.
+         */
+        void setSplits(int wordId, int[] aUnitSplit, int[] bUnitSplit) {
+            if (aUnitSplit[0] == 0 && bUnitSplit[0] == 0) {
+                splitOffsets[wordId] = 0;
+                return;
+            }
+            int aLength = aUnitSplit[0] + 1;
+            int bLength = bUnitSplit[0] + 1;
+            ensureCapacity(size + aLength + bLength);
+            splitOffsets[wordId] = size;
+            System.arraycopy(aUnitSplit, 0, splits, size, aLength);
+            size += aLength;
+            System.arraycopy(bUnitSplit, 0, splits, size, bLength);
+            size += bLength;
+        }
+
+        WordSplitTable build() {
+            return new WordSplitTable(headwordLengths, splitOffsets, Arrays.copyOf(splits, size));
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > splits.length) {
+                splits = Arrays.copyOf(splits, Math.max(capacity, splits.length * 2));
+            }
+        }
+    }
+}
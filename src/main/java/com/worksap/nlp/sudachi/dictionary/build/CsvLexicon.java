@@ -16,7 +16,9 @@
 
 package com.worksap.nlp.sudachi.dictionary.build;
 
+import com.worksap.nlp.sudachi.Tokenizer;
 import com.worksap.nlp.sudachi.WordId;
+import com.worksap.nlp.sudachi.dictionary.DoubleArrayLexicon;
 import com.worksap.nlp.sudachi.dictionary.POS;
 import com.worksap.nlp.sudachi.dictionary.WordInfo;
 
@@ -264,6 +266,29 @@ public class CsvLexicon implements WriteDictionary {
         output.position(pos);
     }
 
+    /**
+     * Calculates the costs of the entries whose cost is {@code Short.MIN_VALUE} in
+     * the same way as {@link DoubleArrayLexicon#calculateCost(Tokenizer)} does when
+     * loading a user dictionary.
+     *
+     * @param tokenizer
+     *            the tokenizer to analyze the surfaces with
+     * @param progress
+     *            the progress to report to, or null
+     */
+    public void calculateCosts(Tokenizer tokenizer, Progress progress) {
+        int numEntries = entries.size();
+        for (int i = 0; i < numEntries; ++i) {
+            if (parameters.getCost(i) == Short.MIN_VALUE) {
+                String surface = entries.get(i).wordInfo.getSurface();
+                parameters.setCost(i, DoubleArrayLexicon.calculateCost(tokenizer, surface));
+            }
+            if (progress != null) {
+                progress.progress(i + 1, numEntries);
+            }
+        }
+    }
+
     public int addEntry(WordEntry e) {
         int id = entries.size();
         entries.add(e);
@@ -16,6 +16,7 @@
 
 package com.worksap.nlp.sudachi.dictionary.build;
 
+import com.worksap.nlp.sudachi.Tokenizer;
 import com.worksap.nlp.sudachi.dictionary.*;
 
 import java.io.IOException;
@@ -52,7 +53,7 @@ public class DicBuilder {
         protected long version;
         protected long creationTime = java.lang.System.currentTimeMillis();
         private final List<ModelOutput.Part> inputs = new ArrayList<>();
-        private Progress progress;
+        protected Progress progress;
 
         protected WordIdResolver resolver() {
             return new WordLookup.Csv(lexicon);
@@ -163,6 +164,7 @@ public class DicBuilder {
 
     public static final class User extends Base<User> {
         final DictionaryAccess dictionary;
+        private Tokenizer costTokenizer;
 
         private User(DictionaryAccess dictionary) {
             this.dictionary = dictionary;
@@ -177,6 +179,42 @@ public class DicBuilder {
         protected WordIdResolver resolver() {
             return new WordLookup.Chain(new WordLookup.Prebuilt(dictionary.getLexicon()), new WordLookup.Csv(lexicon));
         }
+
+        /**
+         * Calculates the costs of the words whose cost is {@code -32768} at build
+         * time and writes them into the dictionary, instead of calculating them at
+         * each load.
+         * <p>
+         * The costs are the same as the ones calculated at load time when the
+         * tokenizer is created by
+         * {@link com.worksap.nlp.sudachi.JapaneseDictionary#createCostTokenizer()}
+         * of the dictionary which the user dictionary is loaded into. The user
+         * dictionaries loaded before are taken into account only if that dictionary
+         * contains them.
+         *
+         * @param tokenizer
+         *            the tokenizer to analyze the surfaces of the words with
+         * @return this builder
+         */
+        public User calculateCosts(Tokenizer tokenizer) {
+            this.costTokenizer = tokenizer;
+            return this;
+        }
+
+        @Override
+        public BuildStats build(SeekableByteChannel result) throws IOException {
+            if (costTokenizer != null) {
+                long startTime = java.lang.System.nanoTime();
+                if (progress != null) {
+                    progress.startBlock("word costs", startTime, Progress.Kind.INPUT);
+                }
+                lexicon.calculateCosts(costTokenizer, progress);
+                if (progress != null) {
+                    progress.endBlock(lexicon.getEntries().size(), java.lang.System.nanoTime() - startTime);
+                }
+            }
+            return super.build(result);
+        }
     }
 
     public static final class SystemNoMatrix {
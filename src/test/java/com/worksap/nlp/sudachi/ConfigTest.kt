@@ -17,6 +17,7 @@
 package com.worksap.nlp.sudachi
 
 import com.worksap.nlp.sudachi.Config.Resource
+import com.worksap.nlp.sudachi.dictionary.CategoryType
 import com.worksap.nlp.sudachi.dictionary.build.res
 import java.io.FileNotFoundException
 import java.net.URL
@@ -130,6 +131,41 @@ class ConfigTest {
     assertFails { cfg.oovProviderPlugins[0].instantiate(PathAnchor.filesystem("")) }
   }
 
+  @Test
+  fun shortInputLength() {
+    assertEquals(
+        JapaneseTokenizer.DEFAULT_SHORT_INPUT_LENGTH,
+        Config.fromJsonString("{}", PathAnchor.none()).shortInputLength)
+    val config = Config.fromJsonString("{\"shortInputLength\": 8}", PathAnchor.none())
+    assertEquals(8, config.shortInputLength)
+    assertEquals(8, Config.empty().withFallback(config).shortInputLength)
+    assertEquals(4, Config.empty().shortInputLength(4).withFallback(config).shortInputLength)
+    assertFails { Config.empty().shortInputLength(-1) }
+  }
+
+  @Test
+  fun atomicRuns() {
+    val empty = Config.fromJsonString("{}", PathAnchor.none())
+    assertEquals(0, empty.atomicRunLength)
+    assertEquals(
+        setOf(CategoryType.ALPHA, CategoryType.NUMERIC, CategoryType.SYMBOL),
+        empty.atomicRunCategories)
+    val config =
+        Config.fromJsonString(
+            "{\"atomicRunLength\": 16, \"atomicRunCategories\": [\"ALPHA\"]}", PathAnchor.none())
+    assertEquals(16, config.atomicRunLength)
+    assertEquals(setOf(CategoryType.ALPHA), config.atomicRunCategories)
+    assertEquals(16, Config.empty().withFallback(config).atomicRunLength)
+    val merged = Config.empty().atomicRuns(8, CategoryType.NUMERIC).withFallback(config)
+    assertEquals(8, merged.atomicRunLength)
+    assertEquals(setOf(CategoryType.NUMERIC), merged.atomicRunCategories)
+    assertNotEquals(config, merged)
+    assertFails { Config.empty().atomicRuns(-1) }
+    assertFails {
+      Config.fromJsonString("{\"atomicRunCategories\": [\"LATIN\"]}", PathAnchor.none())
+    }
+  }
+
   @Test
   fun equalsHashCode() {
     val c1 = Config.fromClasspath("sudachi.json")
@@ -100,6 +100,28 @@ public class DefaultInputTextPluginTest {
         assertThat(text.getOriginalIndex(17), is(7));
     }
 
+    @Test
+    public void rewriteNormalizedText() {
+        String normalized = "あいう漢字abc123";
+        builder = new UTF8InputTextBuilder(normalized, new MockGrammar());
+        plugin.rewrite(builder);
+        text = builder.build();
+        assertThat(text.getText(), is(normalized));
+        assertThat(text.getOriginalIndex(text.getByteText().length), is(normalized.length()));
+    }
+
+    @Test
+    public void rewriteWithSurrogatePairs() {
+        // U+1D400 MATHEMATICAL BOLD CAPITAL A, U+2123D
+        builder = new UTF8InputTextBuilder("\uD835\uDC00𡈽ＡB", new MockGrammar());
+        plugin.rewrite(builder);
+        text = builder.build();
+        assertThat(text.getText(), is("A𡈽ab"));
+        assertThat(text.getOriginalIndex(1), is(2));
+        assertThat(text.getOriginalIndex(5), is(4));
+        assertThat(text.getOriginalIndex(6), is(5));
+    }
+
     @Test
     public void setUpWithNull() throws IOException {
         plugin = new DefaultInputTextPlugin();
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import static com.worksap.nlp.sudachi.UTF8InputTextTest.assertSameInputText;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.worksap.nlp.sudachi.dictionary.CategoryType;
+import com.worksap.nlp.sudachi.dictionary.CharacterCategory;
+import com.worksap.nlp.sudachi.dictionary.Grammar;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InputTextTransformerTest {
+
+    static final String[] TEXTS = { "", "a", "ー", "ーー", "ＡＢＣ徳島（とくしま）に行く", "ｶﾞｰーーーー〜〜あ", "漢(かん)字(じ)", "行(い)く(く)",
+            "徳島(とくしまあい)", "㈱ｶﾞ", "𡈽（あ）", "𝐀（かな）", "ﾞｶﾞ", "Ⅲ①ⅲ⼼", "〜〜〜（）", "ｳﾞｧｰｰ", "漢(", "漢(か" };
+
+    MockGrammar grammar;
+
+    @Before
+    public void setUp() {
+        grammar = new MockGrammar();
+    }
+
+    @Test
+    public void fusedPluginsAreSameAsSequentialOnes() {
+        JapaneseDictionary dict = TestDictionary.INSTANCE.user0();
+        for (String text : TEXTS) {
+            UTF8InputTextBuilder expected = new UTF8InputTextBuilder(text, dict.grammar);
+            List<InputTextTransformer> transformers = new ArrayList<>();
+            for (InputTextPlugin plugin : dict.inputTextPlugins) {
+                rewriteByReplace(plugin, expected, dict.grammar);
+                transformers.add(((StreamingInputTextPlugin) plugin).newTransformer());
+            }
+            UTF8InputTextBuilder actual = new UTF8InputTextBuilder(text, dict.grammar);
+            actual.transform(transformers);
+            assertSameInputText(expected.build(), actual.build());
+        }
+    }
+
+    @Test
+    public void replaceAndDelete() {
+        String text = "xayxbxxcyxy";
+        UTF8InputTextBuilder expected = new UTF8InputTextBuilder(text, grammar);
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == 'x') {
+                expected.addReplacement(i, i + 1, "");
+            } else if (text.charAt(i) == 'y') {
+                expected.addReplacement(i, i + 1, "123");
+            }
+        }
+        UTF8InputTextBuilder actual = new UTF8InputTextBuilder(text, grammar);
+        actual.transform(Collections.singletonList(new TestTransformer()));
+        assertSameInputText(expected.build(), actual.build());
+    }
+
+    @Test
+    public void rewriteWithBuilder() {
+        UTF8InputTextBuilder builder = new UTF8InputTextBuilder("xayxb", grammar);
+        InputTextTransformer.rewrite(builder, new TestTransformer());
+        assertThat(builder.getText(), is("a123b"));
+    }
+
+    @Test
+    public void rewriteWithOtherBuilder() {
+        UTF8InputTextBuilder expected = new UTF8InputTextBuilder("xayxbyy", grammar);
+        InputTextTransformer.rewrite(expected, new TestTransformer());
+        UTF8InputTextBuilder actual = new UTF8InputTextBuilder("xayxbyy", grammar);
+        InputTextTransformer.rewrite(new DelegatingBuilder(actual), new TestTransformer());
+        assertSameInputText(expected.build(), actual.build());
+    }
+
+    @Test
+    public void chainTransformers() {
+        UTF8InputTextBuilder expected = new UTF8InputTextBuilder("yxay", grammar);
+        InputTextTransformer.rewrite(expected, new TestTransformer());
+        InputTextTransformer.rewrite(expected, new TestTransformer());
+        UTF8InputTextBuilder actual = new UTF8InputTextBuilder("yxay", grammar);
+        List<InputTextTransformer> transformers = new ArrayList<>();
+        transformers.add(new TestTransformer());
+        transformers.add(new TestTransformer());
+        actual.transform(transformers);
+        assertSameInputText(expected.build(), actual.build());
+    }
+
+    /**
+     * Rewrites the text with {@link InputTextBuilder#replace} one by one in the
+     * same way as the plugins did before they were fused.
+     */
+    static void rewriteByReplace(InputTextPlugin plugin, InputTextBuilder builder, Grammar grammar) {
+        if (plugin instanceof DefaultInputTextPlugin) {
+            rewriteByReplace((DefaultInputTextPlugin) plugin, builder);
+        } else if (plugin instanceof ProlongedSoundMarkInputTextPlugin) {
+            rewriteByReplace((ProlongedSoundMarkInputTextPlugin) plugin, builder);
+        } else if (plugin instanceof IgnoreYomiganaPlugin) {
+            rewriteByReplace((IgnoreYomiganaPlugin) plugin, builder, grammar);
+        } else {
+            throw new IllegalArgumentException(plugin.getClass().getName());
+        }
+    }
+
+    static void rewriteByReplace(DefaultInputTextPlugin plugin, InputTextBuilder builder) {
+        Map<Character, Integer> keyLengths = new HashMap<>();
+        for (String key : plugin.replaceCharMap.keySet()) {
+            keyLengths.merge(key.charAt(0), key.length(), Math::max);
+        }
+        int offset = 0;
+        int nextOffset = 0;
+        String text = builder.getText();
+        textloop: for (int i = 0; i < text.length(); i = text.offsetByCodePoints(i, 1)) {
+            offset += nextOffset;
+            nextOffset = 0;
+            for (int l = Math.min(keyLengths.getOrDefault(text.charAt(i), 0), text.length() - i); l > 0; l--) {
+                String replace = plugin.replaceCharMap.get(text.substring(i, i + l));
+                if (replace != null) {
+                    builder.replace(i + offset, i + l + offset, replace);
+                    nextOffset += replace.length() - l;
+                    i += l - 1;
+                    continue textloop;
+                }
+            }
+
+            int original = text.codePointAt(i);
+            int charLength = text.offsetByCodePoints(i, 1) - i;
+            int lower = Character.toLowerCase(original);
+            String replace;
+            if (plugin.ignoreNormalizeSet.contains(lower)) {
+                if (original == lower) {
+                    continue;
+                }
+                replace = new String(Character.toChars(lower));
+            } else {
+                replace = Normalizer.normalize(new String(Character.toChars(lower)), Normalizer.Form.NFKC);
+            }
+            nextOffset = replace.length() - charLength;
+            if (replace.length() != charLength || original != replace.codePointAt(0)) {
+                builder.replace(i + offset, i + charLength + offset, replace);
+            }
+        }
+    }
+
+    static void rewriteByReplace(ProlongedSoundMarkInputTextPlugin plugin, InputTextBuilder builder) {
+        String text = builder.getText();
+        int n = text.length();
+        int offset = 0;
+        int markStartIndex = n;
+        boolean isProlongedSoundMark = false;
+        for (int i = 0; i < n; i++) {
+            int cp = text.codePointAt(i);
+            if (!isProlongedSoundMark && plugin.prolongedSoundMarkSet.contains(cp)) {
+                isProlongedSoundMark = true;
+                markStartIndex = i;
+            } else if (isProlongedSoundMark && !plugin.prolongedSoundMarkSet.contains(cp)) {
+                if ((i - markStartIndex) > 1) {
+                    builder.replace(markStartIndex - offset, i - offset, plugin.replacementSymbol);
+                    offset += i - markStartIndex - 1;
+                }
+                isProlongedSoundMark = false;
+            }
+        }
+        if (isProlongedSoundMark && (n - markStartIndex) > 1) {
+            builder.replace(markStartIndex - offset, n - offset, plugin.replacementSymbol);
+        }
+    }
+
+    static void rewriteByReplace(IgnoreYomiganaPlugin plugin, InputTextBuilder builder, Grammar grammar) {
+        CharacterCategory category = grammar.getCharacterCategory();
+        String text = builder.getText();
+        int n = text.length();
+        int startBracketPoint = -1;
+        int offset = 0;
+        boolean hasYomigana = false;
+        for (int i = 1; i < n; i++) {
+            int cp = text.codePointAt(i);
+            int types = category.getCategoryTypeIds(cp);
+            boolean isKana = (types & (CategoryType.HIRAGANA.getId() | CategoryType.KATAKANA.getId())) != 0;
+            if ((category.getCategoryTypeIds(text.codePointAt(i - 1)) & CategoryType.KANJI.getId()) != 0
+                    && plugin.leftBracketSet.contains(cp)) {
+                startBracketPoint = i;
+            } else if (hasYomigana && plugin.rightBracketSet.contains(cp)) {
+                builder.replace(startBracketPoint - 1 - offset, i + 1 - offset,
+                        text.substring(startBracketPoint - 1, startBracketPoint));
+                offset += i - startBracketPoint + 1;
+                startBracketPoint = -1;
+                hasYomigana = false;
+            } else if (startBracketPoint != -1) {
+                if (isKana && i - startBracketPoint <= plugin.maxYomiganaLength) {
+                    hasYomigana = true;
+                } else {
+                    startBracketPoint = -1;
+                    hasYomigana = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hides the builder so that the transformers only use
+     * {@link InputTextBuilder#replace}.
+     */
+    static class DelegatingBuilder implements InputTextBuilder {
+        final InputTextBuilder builder;
+
+        DelegatingBuilder(InputTextBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void replace(int begin, int end, String str) {
+            builder.replace(begin, end, str);
+        }
+
+        @Override
+        public String getOriginalText() {
+            return builder.getOriginalText();
+        }
+
+        @Override
+        public String getText() {
+            return builder.getText();
+        }
+
+        @Override
+        public InputText build() {
+            return builder.build();
+        }
+    }
+
+    /**
+     * Deletes 'x' and replaces 'y' with "123".
+     */
+    static class TestTransformer extends InputTextTransformer {
+        @Override
+        protected void transform() {
+            while (available() > 0) {
+                char c = charAt(0);
+                if (c == 'x') {
+                    replace(1, "");
+                } else if (c == 'y') {
+                    replace(1, "123");
+                } else {
+                    keep(1);
+                }
+            }
+        }
+    }
+}
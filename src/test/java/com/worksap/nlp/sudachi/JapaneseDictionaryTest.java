@@ -18,12 +18,16 @@ package com.worksap.nlp.sudachi;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.List;
 
+import com.worksap.nlp.sudachi.dictionary.LexiconSet;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -90,6 +94,98 @@ public class JapaneseDictionaryTest {
         }
     }
 
+    @Test
+    public void swapUserDictionaries() throws IOException {
+        JapaneseDictionary jd = (JapaneseDictionary) dict;
+        Tokenizer tokenizer = jd.create();
+        assertThat(tokenizer.tokenize("ぴらる").get(0).isOOV(), is(true));
+
+        jd.swapUserDictionaries(Config.empty().addUserDictionary(TestDictionary.INSTANCE.getUserDict1()));
+        List<Morpheme> swapped = tokenizer.tokenize("ぴらる");
+        assertThat(swapped.size(), is(1));
+        assertThat(swapped.get(0).getDictionaryId(), is(1));
+        assertThat(jd.create().tokenize("ぴらる").get(0).getDictionaryId(), is(1));
+
+        jd.swapUserDictionaries(Config.empty());
+        assertThat(tokenizer.tokenize("ぴらる").get(0).isOOV(), is(true));
+    }
+
+    @Test
+    public void morphemesOutliveSwap() throws IOException {
+        JapaneseDictionary jd = (JapaneseDictionary) dict;
+        Tokenizer tokenizer = jd.create();
+        jd.swapUserDictionaries(Config.empty().addUserDictionary(TestDictionary.INSTANCE.getUserDict1())
+                .addUserDictionary(TestDictionary.INSTANCE.getUserDict2()));
+        List<Morpheme> morphemes = tokenizer.tokenize("かぼす");
+        LexiconSet previous = jd.getLexicon();
+
+        jd.swapUserDictionaries(Config.empty());
+        // the morphemes keep the lexicon and the parts of speech they were built from
+        assertThat(previous.isValid(), is(true));
+        Morpheme m = morphemes.get(0);
+        assertThat(m.surface(), is("かぼす"));
+        assertThat(m.getDictionaryId(), is(2));
+        assertThat(m.partOfSpeech().get(0), is("被子植物門"));
+        assertThat(m.readingForm(), is("カボス"));
+        assertThat(jd.getPartOfSpeechSize(), is(8));
+    }
+
+    @Test
+    public void failedSwapKeepsUserDictionaries() throws IOException {
+        JapaneseDictionary jd = (JapaneseDictionary) dict;
+        Tokenizer tokenizer = jd.create();
+        jd.swapUserDictionaries(Config.empty().addUserDictionary(TestDictionary.INSTANCE.getUserDict2()));
+        try {
+            jd.swapUserDictionaries(Config.empty().addUserDictionary(TestDictionary.INSTANCE.getUserDict1())
+                    .addUserDictionary(TestDictionary.INSTANCE.getUserDict2()));
+            fail("the user dictionary in use is accepted");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("the user dictionary is already in use"));
+        }
+        Morpheme m = tokenizer.tokenize("かぼす").get(0);
+        assertThat(m.getDictionaryId(), is(1));
+        assertThat(m.partOfSpeech().get(0), is("被子植物門"));
+        assertThat(tokenizer.tokenize("ぴらる").get(0).isOOV(), is(true));
+    }
+
+    @Test
+    public void repeatedSwapsKeepPartOfSpeechSize() throws IOException {
+        JapaneseDictionary jd = (JapaneseDictionary) dict;
+        Tokenizer tokenizer = jd.create();
+        int baseSize = jd.getPartOfSpeechSize();
+        int withUserPos = -1;
+        for (int i = 0; i < 10; i++) {
+            jd.swapUserDictionaries(Config.empty().addUserDictionary(TestDictionary.INSTANCE.getUserDict1())
+                    .addUserDictionary(TestDictionary.INSTANCE.getUserDict2()));
+            if (withUserPos < 0) {
+                withUserPos = jd.getPartOfSpeechSize();
+            }
+            assertThat(jd.getPartOfSpeechSize(), is(withUserPos));
+            Morpheme m = tokenizer.tokenize("かぼす").get(0);
+            assertThat(m.getDictionaryId(), is(2));
+            assertThat(m.partOfSpeech().get(0), is("被子植物門"));
+
+            jd.swapUserDictionaries(Config.empty());
+            assertThat(jd.getPartOfSpeechSize(), is(baseSize));
+            assertThat(tokenizer.tokenize("かぼす").get(0).isOOV(), is(true));
+        }
+        assertThat(withUserPos > baseSize, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void swapUserDictionaryInUse() throws IOException {
+        JapaneseDictionary jd = (JapaneseDictionary) dict;
+        Config config = Config.empty().addUserDictionary(TestDictionary.INSTANCE.getUserDict1());
+        jd.swapUserDictionaries(config);
+        jd.swapUserDictionaries(config);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void swapUserDictionariesAfterClose() throws IOException {
+        JapaneseDictionary dic = makeDictionaryIncorrectly();
+        dic.swapUserDictionaries(Config.empty());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void throwExceptionOnTokenizerUsageAfterClose() throws IOException {
         Tokenizer tok = makeTokenizerIncorrectly();
@@ -19,12 +19,22 @@ package com.worksap.nlp.sudachi;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
 import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -33,6 +43,7 @@ import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
 
+import com.worksap.nlp.sudachi.dictionary.CategoryType;
 import com.worksap.nlp.sudachi.sentdetect.SentenceDetector;
 
 import org.hamcrest.BaseMatcher;
@@ -344,6 +355,329 @@ public class JapaneseTokenizerTest {
         assertThat(morphemes2.get(0).normalizedForm(), is("アイウ"));
     }
 
+    @Test
+    public void tokenizeBoundaries() {
+        assertArrayEquals(new int[] { 0, 3 }, tokenizer.tokenizeBoundaries("東京都"));
+        assertArrayEquals(new int[] { 0, 2, 3 }, tokenizer.tokenizeBoundaries(Tokenizer.SplitMode.A, "東京都"));
+        assertArrayEquals(new int[] { 0, 3 }, tokenizer.tokenizeBoundaries(Tokenizer.SplitMode.B, "東京都"));
+        assertArrayEquals(new int[0], tokenizer.tokenizeBoundaries(""));
+    }
+
+    @Test
+    public void tokenizeBoundariesWithZeroWidthTokens() {
+        assertArrayEquals(new int[] { 0, 1, 4, 5 }, tokenizer.tokenizeBoundaries("…東京都…"));
+        assertArrayEquals(new int[] { 0, 1, 3, 4, 5 }, tokenizer.tokenizeBoundaries(Tokenizer.SplitMode.A, "…東京都…"));
+    }
+
+    @Test
+    public void tokenizeBoundariesAgreesWithMorphemes() {
+        String[] texts = { "東京都に行った", "な。な", "京都…東京都", "アイアイウ123東京都" };
+        for (Tokenizer.SplitMode mode : Tokenizer.SplitMode.values()) {
+            for (String text : texts) {
+                MorphemeList morphemes = tokenizer.tokenize(mode, text);
+                int[] boundaries = tokenizer.tokenizeBoundaries(mode, text);
+                List<Integer> expected = new ArrayList<>();
+                expected.add(0);
+                for (Morpheme m : morphemes) {
+                    if (m.end() != expected.get(expected.size() - 1)) {
+                        expected.add(m.end());
+                    }
+                }
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), boundaries);
+            }
+        }
+    }
+
+    @Test
+    public void defaultTokenizeBoundaries() {
+        Tokenizer delegating = new DelegatingTokenizer(tokenizer);
+        String[] texts = { "", "東京都に行った", "な。な", "京都…東京都", "…東京都…" };
+        for (Tokenizer.SplitMode mode : Tokenizer.SplitMode.values()) {
+            for (String text : texts) {
+                assertArrayEquals(tokenizer.tokenizeBoundaries(mode, text), delegating.tokenizeBoundaries(mode, text));
+            }
+        }
+    }
+
+    @Test
+    public void defaultTokenizeSentenceBoundaries() {
+        Tokenizer delegating = new DelegatingTokenizer(tokenizer);
+        String[] texts = { "", "京都。東京.東京都。", "京都。東京都", "…東京都…。な" };
+        for (Tokenizer.SplitMode mode : Tokenizer.SplitMode.values()) {
+            for (String text : texts) {
+                Iterator<int[]> expected = tokenizer.tokenizeSentenceBoundaries(mode, text).iterator();
+                Iterator<int[]> actual = delegating.tokenizeSentenceBoundaries(mode, text).iterator();
+                while (expected.hasNext()) {
+                    assertThat(actual.hasNext(), is(true));
+                    assertArrayEquals(expected.next(), actual.next());
+                }
+                assertThat(actual.hasNext(), is(false));
+            }
+        }
+    }
+
+    @Test
+    public void tokenizeBytes() {
+        String[] texts = { "東京都に行った", "京都…東京都", "ＡＢＣ東京都", "𡈽東京都" };
+        for (String text : texts) {
+            byte[] bytes = ("あ" + text + "い").getBytes(StandardCharsets.UTF_8);
+            MorphemeList expected = tokenizer.tokenize(Tokenizer.SplitMode.C, text);
+            MorphemeList actual = tokenizer.tokenize(Tokenizer.SplitMode.C, bytes, 3, bytes.length - 6);
+            assertThat(actual.size(), is(expected.size()));
+            for (int i = 0; i < expected.size(); i++) {
+                Morpheme m = actual.get(i);
+                assertThat(m, morpheme(expected.get(i).surface(), expected.get(i).begin(), expected.get(i).end()));
+                assertThat(actual.getByteBegin(i),
+                        is(text.substring(0, m.begin()).getBytes(StandardCharsets.UTF_8).length));
+                assertThat(actual.getByteEnd(i),
+                        is(text.substring(0, m.end()).getBytes(StandardCharsets.UTF_8).length));
+            }
+        }
+    }
+
+    @Test
+    public void defaultTokenizeBytes() {
+        Tokenizer delegating = new DelegatingTokenizer(tokenizer);
+        byte[] bytes = "あ京都…東京都い".getBytes(StandardCharsets.UTF_8);
+        MorphemeList expected = tokenizer.tokenize(Tokenizer.SplitMode.C, bytes, 3, bytes.length - 6);
+        MorphemeList actual = delegating.tokenize(Tokenizer.SplitMode.C, bytes, 3, bytes.length - 6);
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            Morpheme m = expected.get(i);
+            assertThat(actual.get(i), morpheme(m.surface(), m.begin(), m.end()));
+            assertThat(actual.getByteBegin(i), is(expected.getByteBegin(i)));
+            assertThat(actual.getByteEnd(i), is(expected.getByteEnd(i)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void defaultTokenizeInvalidBytes() {
+        new DelegatingTokenizer(tokenizer).tokenize(Tokenizer.SplitMode.C, new byte[] { (byte) 0xe6, 0x41 }, 0, 2);
+    }
+
+    @Test
+    public void tokenizeBytesDoesNotCopyUnchangedText() {
+        byte[] bytes = "あ東京都".getBytes(StandardCharsets.UTF_8);
+        UTF8InputText input = tokenizer.buildInputText(bytes, 3, 9);
+        assertThat(input.getByteArray(), sameInstance(bytes));
+        assertThat(input.getByteOffset(), is(3));
+        assertThat(input.getText(), is("東京都"));
+
+        bytes = "ＡＢＣ".getBytes(StandardCharsets.UTF_8);
+        input = tokenizer.buildInputText(bytes, 0, bytes.length);
+        assertNotSame(bytes, input.getByteArray());
+        assertThat(input.getText(), is("abc"));
+    }
+
+    @Test
+    public void tokenizeByteBuffer() {
+        byte[] bytes = "東京都に行った".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.flip();
+        MorphemeList morphemes = tokenizer.tokenize(direct);
+        assertThat(morphemes.size(), is(tokenizer.tokenize("東京都に行った").size()));
+        assertThat(morphemes.get(0), morpheme("東京都", 0, 3));
+        assertThat(direct.position(), is(0));
+
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        heap.position(9);
+        morphemes = tokenizer.tokenize(heap);
+        assertThat(morphemes.get(0), morpheme("に", 0, 1));
+        assertThat(morphemes.getByteEnd(0), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tokenizeInvalidBytes() {
+        tokenizer.tokenize(new byte[] { (byte) 0xE6, (byte) 0x9D }, 0, 2);
+    }
+
+    @Test
+    public void tokenizeNormalized() {
+        String text = "東京都に行った";
+        MorphemeList expected = tokenizer.tokenize(text);
+        MorphemeList actual = tokenizer.tokenizeNormalized(text);
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            Morpheme m = expected.get(i);
+            assertThat(actual.get(i), morpheme(m.surface(), m.begin(), m.end()));
+        }
+        assertThat(tokenizer.tokenizeNormalized("").size(), is(0));
+    }
+
+    @Test
+    public void defaultTokenizeNormalized() {
+        Tokenizer delegating = new DelegatingTokenizer(tokenizer);
+        delegating.setPreNormalized(true);
+        String text = "東京都に行った";
+        MorphemeList expected = tokenizer.tokenizeNormalized(text);
+        MorphemeList actual = delegating.tokenizeNormalized(text);
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            Morpheme m = expected.get(i);
+            assertThat(actual.get(i), morpheme(m.surface(), m.begin(), m.end()));
+        }
+        assertThat(tokenizer.buildInputText("ＡＢＣ").getText(), is("abc"));
+    }
+
+    @Test
+    public void setPreNormalized() {
+        assertThat(tokenizer.buildInputText("ＡＢＣ").getText(), is("abc"));
+        tokenizer.setPreNormalized(true);
+        UTF8InputText input = tokenizer.buildInputText("ＡＢＣ𡈽");
+        assertThat(input.getText(), is("ＡＢＣ𡈽"));
+        assertThat(input.getOriginalIndex(input.getByteLength()), is(5));
+        tokenizer.setPreNormalized(false);
+        assertThat(tokenizer.buildInputText("ＡＢＣ").getText(), is("abc"));
+    }
+
+    @Test
+    public void shortInputIsSameAsLongInput() {
+        String[] texts = { "東京都", "京都…東京都", "ＡＢＣ東京都", "東京(とうきょう)", "ーー", "東京都に行った", "𡈽東京都" };
+        JapaneseTokenizer longTokenizer = (JapaneseTokenizer) dict.create();
+        longTokenizer.shortInputLength = 0;
+        for (int repeat = 0; repeat < 2; repeat++) {
+            for (String text : texts) {
+                MorphemeList expected = longTokenizer.tokenize(text);
+                MorphemeList actual = tokenizer.tokenize(text);
+                assertThat(actual.size(), is(expected.size()));
+                for (int i = 0; i < expected.size(); i++) {
+                    Morpheme m = expected.get(i);
+                    assertThat(actual.get(i), morpheme(m.surface(), m.begin(), m.end()));
+                    assertThat(actual.get(i).normalizedForm(), is(m.normalizedForm()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void atomicRuns() {
+        tokenizer.atomicRunCategories = CategoryType.ALPHA.getId() | CategoryType.NUMERIC.getId()
+                | CategoryType.SYMBOL.getId();
+        tokenizer.atomicRunLength = 8;
+
+        List<Morpheme> s = tokenizer.tokenize("東京都www.example.com/a-1東京");
+        assertThat(s.size(), is(3));
+        assertThat(s.get(0), morpheme("東京都", 0, 3));
+        assertThat(s.get(1), morpheme("www.example.com/a-1", 3, 22));
+        assertThat(s.get(2), morpheme("東京", 22, 24));
+
+        UTF8InputText input = tokenizer.buildInputText("東京都www.example.com/a-1東京");
+        assertThat(input.isAtomicRunStart(9), is(true));
+        assertThat(input.isAtomicRunStart(12), is(false));
+        assertThat(input.canBow(12), is(false));
+        assertThat(input.slice(6, 10).isAtomicRunStart(0), is(true));
+
+        JapaneseTokenizer other = (JapaneseTokenizer) dict.create();
+        for (String text : new String[] { "東京都ab.c東京", "ab.c-1" }) {
+            MorphemeList expected = other.tokenize(text);
+            MorphemeList actual = tokenizer.tokenize(text);
+            assertThat(actual.size(), is(expected.size()));
+            for (int i = 0; i < expected.size(); i++) {
+                Morpheme m = expected.get(i);
+                assertThat(actual.get(i), morpheme(m.surface(), m.begin(), m.end()));
+            }
+        }
+    }
+
+    @Test
+    public void steadyStateTokenizeAllocatesOnlyNodesAndOutput() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+
+        // a short query with an OOV, which is analyzed with the scratch objects
+        String text = "東京都ぴさる";
+        for (int i = 0; i < 100; i++) {
+            tokenizer.tokenize(text);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        MorphemeList morphemes = tokenizer.tokenize(text);
+        long tokenizeBytes = threads.getThreadAllocatedBytes(threadId) - before;
+        assertThat(morphemes.get(1).isOOV(), is(true));
+
+        UTF8InputText input = tokenizer.buildInputText(text);
+        LatticeImpl lattice = tokenizer.buildLattice(input);
+        int numNodes = 0;
+        for (int end = 1; end <= input.getByteLength(); end++) {
+            numNodes += lattice.getNodesWithEnd(end).size();
+        }
+        lattice.clear();
+
+        // the same output with the nodes of the lattice created from scratch
+        LatticeNodeImpl[] nodes = new LatticeNodeImpl[numNodes];
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < numNodes; i++) {
+            nodes[i] = new LatticeNodeImpl();
+        }
+        UTF8InputText outputInput = tokenizer.buildInputText(text);
+        List<LatticeNode> path = new ArrayList<>();
+        for (int i = 0; i < morphemes.path.size(); i++) {
+            path.add(morphemes.path.get(i));
+        }
+        MorphemeList output = new MorphemeList(outputInput, morphemes.grammar, morphemes.lexicon, path,
+                morphemes.allowEmptyMorpheme, morphemes.mode);
+        long expectedBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(output.size(), is(morphemes.size()));
+        assertThat(tokenizeBytes, lessThanOrEqualTo(expectedBytes));
+    }
+
+    @Test
+    public void tokenizeAllBoundaries() {
+        SplitBoundaries boundaries = tokenizer.tokenizeAllBoundaries("…東京都…");
+        assertArrayEquals(new int[] { 0, 1, 3, 4, 5 }, boundaries.get(Tokenizer.SplitMode.A));
+        assertArrayEquals(new int[] { 0, 1, 4, 5 }, boundaries.get(Tokenizer.SplitMode.B));
+        assertArrayEquals(new int[] { 0, 1, 4, 5 }, boundaries.get(Tokenizer.SplitMode.C));
+
+        boundaries = tokenizer.tokenizeAllBoundaries("");
+        assertArrayEquals(new int[0], boundaries.get(Tokenizer.SplitMode.A));
+        assertArrayEquals(new int[0], boundaries.get(Tokenizer.SplitMode.C));
+    }
+
+    @Test
+    public void defaultTokenizeAllBoundaries() {
+        Tokenizer delegating = new DelegatingTokenizer(tokenizer);
+        String[] texts = { "", "東京都に行った", "…東京都…", "アイアイウ123東京都" };
+        for (String text : texts) {
+            SplitBoundaries expected = tokenizer.tokenizeAllBoundaries(text);
+            SplitBoundaries actual = delegating.tokenizeAllBoundaries(text);
+            for (Tokenizer.SplitMode mode : Tokenizer.SplitMode.values()) {
+                assertArrayEquals(expected.get(mode), actual.get(mode));
+            }
+        }
+    }
+
+    @Test
+    public void splitBoundariesAreCopied() {
+        SplitBoundaries boundaries = tokenizer.tokenizeAllBoundaries("…東京都…");
+        boundaries.get(Tokenizer.SplitMode.B)[1] = 3;
+        assertArrayEquals(new int[] { 0, 1, 4, 5 }, boundaries.get(Tokenizer.SplitMode.B));
+    }
+
+    @Test
+    public void tokenizeSentenceBoundaries() {
+        Iterator<int[]> it = tokenizer.tokenizeSentenceBoundaries(Tokenizer.SplitMode.C, "京都。東京.東京都。")
+                .iterator();
+        assertThat(it.hasNext(), is(true));
+        assertArrayEquals(new int[] { 0, 2, 3 }, it.next());
+        assertThat(it.hasNext(), is(true));
+        assertArrayEquals(new int[] { 3, 5, 6 }, it.next());
+        assertThat(it.hasNext(), is(true));
+        assertArrayEquals(new int[] { 6, 9, 10 }, it.next());
+        assertThat(it.hasNext(), is(false));
+
+        it = tokenizer.tokenizeSentenceBoundaries(Tokenizer.SplitMode.A, "京都。東京都").iterator();
+        assertThat(it.hasNext(), is(true));
+        assertArrayEquals(new int[] { 0, 2, 3 }, it.next());
+        assertThat(it.hasNext(), is(true));
+        assertArrayEquals(new int[] { 3, 5, 6 }, it.next());
+        assertThat(it.hasNext(), is(false));
+    }
+
     @Test
     public void dumpInternalStructures() {
         String json = tokenizer.dumpInternalStructures("東京都");
@@ -426,4 +760,41 @@ public class JapaneseTokenizerTest {
         assertThat(root.getJsonArray("rewrittenPath").size(), is(1));
         assertThat(root.getJsonArray("rewrittenPath").getJsonObject(0).getString("headword"), is("東京都"));
     }
+
+    /**
+     * Implements only the abstract methods of {@link Tokenizer} to test its
+     * default methods.
+     */
+    static class DelegatingTokenizer implements Tokenizer {
+        final Tokenizer tokenizer;
+
+        DelegatingTokenizer(Tokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        @Override
+        public MorphemeList tokenize(SplitMode mode, String text) {
+            return tokenizer.tokenize(mode, text);
+        }
+
+        @Override
+        public Iterable<MorphemeList> tokenizeSentences(SplitMode mode, String text) {
+            return tokenizer.tokenizeSentences(mode, text);
+        }
+
+        @Override
+        public Iterable<MorphemeList> tokenizeSentences(SplitMode mode, Reader input) throws IOException {
+            return tokenizer.tokenizeSentences(mode, input);
+        }
+
+        @Override
+        public void setDumpOutput(PrintStream output) {
+            tokenizer.setDumpOutput(output);
+        }
+
+        @Override
+        public String dumpInternalStructures(String text) {
+            return tokenizer.dumpInternalStructures(text);
+        }
+    }
 }
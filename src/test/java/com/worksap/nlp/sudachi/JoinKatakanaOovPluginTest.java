@@ -18,6 +18,7 @@ package com.worksap.nlp.sudachi;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.List;
@@ -57,6 +58,12 @@ public class JoinKatakanaOovPluginTest {
         assertEquals(1, path.size());
     }
 
+    @Test
+    public void appliesTo() {
+        assertTrue(plugin.appliesTo(new UTF8InputTextBuilder("東京アイ", tokenizer.grammar).build()));
+        assertFalse(plugin.appliesTo(new UTF8InputTextBuilder("東京都", tokenizer.grammar).build()));
+    }
+
     @Test
     public void testPOS() {
         // アイアイウ is 名詞-固有名詞-地名-一般 in the dictionary
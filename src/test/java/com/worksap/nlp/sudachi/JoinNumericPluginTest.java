@@ -17,6 +17,8 @@
 package com.worksap.nlp.sudachi;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.List;
@@ -163,6 +165,13 @@ public class JoinNumericPluginTest {
         assertEquals("3", path.get(1).getWordInfo().getNormalizedForm());
     }
 
+    @Test
+    public void appliesTo() {
+        assertTrue(plugin.appliesTo(new UTF8InputTextBuilder("猫123匹", tokenizer.grammar).build()));
+        assertTrue(plugin.appliesTo(new UTF8InputTextBuilder("猫三匹", tokenizer.grammar).build()));
+        assertFalse(plugin.appliesTo(new UTF8InputTextBuilder("猫.,匹", tokenizer.grammar).build()));
+    }
+
     private List<LatticeNode> getPath(String text) {
         UTF8InputText input = new UTF8InputTextBuilder(text, tokenizer.grammar).build();
         LatticeImpl lattice = tokenizer.buildLattice(input);
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatticeImplTest {
+
+    JapaneseTokenizer tokenizer;
+
+    @Before
+    public void setUp() {
+        tokenizer = (JapaneseTokenizer) TestDictionary.INSTANCE.user1().create();
+    }
+
+    @Test
+    public void queriesAreSameAsFilteringEndLists() {
+        UTF8InputText input = tokenizer.buildInputText("東京都に行った。京都ＡＢＣ東京タワー");
+        LatticeImpl lattice = tokenizer.buildLattice(input);
+        int length = input.getByteLength();
+        for (int end = 1; end <= length; end++) {
+            for (int begin = 0; begin < end; begin++) {
+                List<LatticeNodeImpl> expected = new ArrayList<>();
+                LatticeNodeImpl minimum = null;
+                for (LatticeNodeImpl node : lattice.getNodesWithEnd(end)) {
+                    if (node.getBegin() == begin) {
+                        expected.add(node);
+                        if (minimum == null || node.getPathCost() < minimum.getPathCost()) {
+                            minimum = node;
+                        }
+                    }
+                }
+                assertThat(lattice.getNodes(begin, end), is(expected));
+                assertThat(lattice.getMinimumNode(begin, end), is(Optional.ofNullable(minimum)));
+            }
+        }
+        lattice.clear();
+    }
+
+    @Test
+    public void insertKeepsEndListSortedByBegin() {
+        UTF8InputText input = tokenizer.buildInputText("東京都");
+        LatticeImpl lattice = tokenizer.buildLattice(input);
+        LatticeNodeImpl first = new LatticeNodeImpl();
+        LatticeNodeImpl second = new LatticeNodeImpl();
+        lattice.insert(0, 9, first);
+        lattice.insert(0, 9, second);
+
+        int previous = -1;
+        for (LatticeNodeImpl node : lattice.getNodesWithEnd(9)) {
+            assertThat(previous <= node.getBegin(), is(true));
+            previous = node.getBegin();
+        }
+        List<LatticeNodeImpl> nodes = lattice.getNodes(0, 9);
+        // the nodes with the same range are kept in the order of insertion
+        assertThat(nodes.get(nodes.size() - 2), sameInstance(first));
+        assertThat(nodes.get(nodes.size() - 1), sameInstance(second));
+        lattice.clear();
+    }
+}
@@ -352,6 +352,51 @@ public class MeCabOovProviderPluginTest {
         assertThat(nodes.size(), is(0));
     }
 
+    @Test
+    public void provideOOVWithMaxGroupingSize() {
+        MeCabOovProviderPlugin.CategoryInfo cinfo = new MeCabOovProviderPlugin.CategoryInfo();
+        cinfo.type = CategoryType.KANJI;
+        cinfo.isInvoke = true;
+        cinfo.isGroup = true;
+        cinfo.length = 1;
+        plugin.categories.put(CategoryType.KANJI, cinfo);
+        plugin.maxGroupingSize = 2;
+
+        inputText.setCategoryType(0, 3, CategoryType.KANJI);
+
+        List<LatticeNode> nodes = plugin.provideOOV(inputText, 0, false);
+        assertThat(nodes.size(), is(1));
+        assertThat(nodes.get(0).getWordInfo().getSurface(), is("あ"));
+
+        nodes = plugin.provideOOV(inputText, 1, false);
+        assertThat(nodes.size(), is(2));
+        assertThat(nodes.get(0).getWordInfo().getSurface(), is("いう"));
+        assertThat(nodes.get(1).getWordInfo().getSurface(), is("い"));
+    }
+
+    @Test
+    public void provideOOVCreatesSurfacesLazily() {
+        MeCabOovProviderPlugin.CategoryInfo cinfo = new MeCabOovProviderPlugin.CategoryInfo();
+        cinfo.type = CategoryType.KANJI;
+        cinfo.isInvoke = true;
+        cinfo.isGroup = true;
+        cinfo.length = 1;
+        plugin.categories.put(CategoryType.KANJI, cinfo);
+
+        inputText.setCategoryType(0, 3, CategoryType.KANJI);
+
+        List<LatticeNode> nodes = plugin.provideOOV(inputText, 1, false);
+        assertThat(nodes.size(), is(2));
+        LatticeNodeImpl n = (LatticeNodeImpl) nodes.get(0);
+        assertThat(n.isOOV(), is(true));
+        assertThat(n.getBegin(), is(1));
+        assertThat(n.getEnd(), is(3));
+        assertThat(n.extraWordInfo == null, is(true));
+        assertThat(n.getWordInfo().getSurface(), is("いう"));
+        assertThat(n.getWordInfo().getLength(), is((short) 2));
+        assertThat(n.getWordInfo().getPOSId(), is((short) 1));
+    }
+
     public static class Lines extends Config.Resource<byte[]> {
         private final byte[] data;
 
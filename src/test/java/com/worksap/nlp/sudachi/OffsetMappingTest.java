@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class OffsetMappingTest {
+
+    @Test
+    public void identity() {
+        String text = "âｂC1あ234漢字𡈽アｺﾞ";
+        OffsetMapping mapping = OffsetMapping.build(text, null);
+        assertThat(mapping.isIdentity(), is(true));
+        assertSameMapping(text, identity(text), mapping);
+        assertThat(mapping.modifiedToOriginal(11), is(12));
+    }
+
+    @Test
+    public void identityArray() {
+        String text = "東京都𡈽";
+        OffsetMapping mapping = OffsetMapping.build(text, identity(text));
+        assertThat(mapping.isIdentity(), is(true));
+        assertSameMapping(text, identity(text), mapping);
+    }
+
+    @Test
+    public void emptyText() {
+        OffsetMapping mapping = OffsetMapping.build("", new int[] { 0 });
+        assertThat(mapping.byteLength(), is(0));
+        assertThat(mapping.byteToModified(0), is(0));
+        assertThat(mapping.modifiedToByte(0), is(0));
+        assertThat(mapping.byteToOriginal(0), is(0));
+    }
+
+    @Test
+    public void editedText() {
+        // "ｱｲｳｴｵ漢字" -> "アイ" + "" + "ウ" + "abc" + "𡈽字"
+        String text = "アイウabc𡈽字";
+        int[] modifiedToOriginal = { 0, 1, 3, 4, 4, 4, 5, 6, 7, 8 };
+        OffsetMapping mapping = OffsetMapping.build(text, modifiedToOriginal);
+        assertThat(mapping.isIdentity(), is(false));
+        assertSameMapping(text, modifiedToOriginal, mapping);
+    }
+
+    @Test
+    public void editedTextWithJumps() {
+        String text = "aあ𡈽bｂ";
+        int[] modifiedToOriginal = { 0, 5, 9, 9, 12, 20, 21 };
+        OffsetMapping mapping = OffsetMapping.build(text, modifiedToOriginal);
+        assertSameMapping(text, modifiedToOriginal, mapping);
+    }
+
+    @Test
+    public void sameAsBuilder() {
+        UTF8InputTextBuilder builder = new UTF8InputTextBuilder("ＡＢＣ東京都（とうきょうと）にｲｷﾏｼﾀ", new MockGrammar());
+        builder.replace(0, 3, "ABC");
+        builder.replace(6, 14, "");
+        builder.replace(7, 9, "イキ");
+        builder.replace(9, 10, "マシ");
+        builder.replace(11, 12, "タ");
+        UTF8InputText input = builder.build();
+        String text = input.getText();
+        int[] modifiedToOriginal = new int[text.length() + 1];
+        for (int i = 0; i <= text.length(); i++) {
+            modifiedToOriginal[i] = input.textIndexToOriginalTextIndex(i);
+        }
+        assertSameMapping(text, modifiedToOriginal, OffsetMapping.build(text, modifiedToOriginal));
+    }
+
+    static int[] identity(String text) {
+        int[] array = new int[text.length() + 1];
+        for (int i = 0; i <= text.length(); i++) {
+            array[i] = (i < text.length() && Character.isLowSurrogate(text.charAt(i))) ? i + 1 : i;
+        }
+        return array;
+    }
+
+    static void assertSameMapping(String text, int[] modifiedToOriginal, OffsetMapping mapping) {
+        int byteLength = text.getBytes(StandardCharsets.UTF_8).length;
+        assertThat(mapping.byteLength(), is(byteLength));
+        for (int i = 0; i <= text.length(); i++) {
+            assertThat(mapping.modifiedToOriginal(i), is(modifiedToOriginal[i]));
+        }
+
+        int position = 0;
+        for (int i = 0; i < text.length(); i = text.offsetByCodePoints(i, 1)) {
+            int length = text.substring(i, text.offsetByCodePoints(i, 1)).getBytes(StandardCharsets.UTF_8).length;
+            assertThat(mapping.modifiedToByte(i), is(position));
+            for (int j = 0; j < length; j++) {
+                assertThat(mapping.byteToModified(position + j), is(i));
+                assertThat(mapping.byteToOriginal(position + j), is(modifiedToOriginal[i]));
+            }
+            position += length;
+        }
+        assertThat(mapping.byteToModified(byteLength), is(text.length()));
+        assertThat(mapping.byteToOriginal(byteLength), is(modifiedToOriginal[text.length()]));
+        assertThat(mapping.modifiedToByte(text.length()), is(byteLength));
+    }
+}
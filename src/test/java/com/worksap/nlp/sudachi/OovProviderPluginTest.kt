@@ -22,7 +22,11 @@ import com.worksap.nlp.sudachi.dictionary.POS
 import kotlin.test.Test
 import kotlin.test.assertEquals
 import kotlin.test.assertFails
+import kotlin.test.assertFalse
 import kotlin.test.assertIs
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
 
 class OovProviderPluginTest {
   class FakeOovProvider : OovProviderPlugin() {
@@ -42,6 +46,33 @@ class OovProviderPluginTest {
     }
 
     var posId: Short = -1
+
+    fun lazyNode(inputText: InputText, begin: Int, end: Int): LatticeNodeImpl {
+      return createNode(inputText, begin, end, 1, 2, 3, 4)
+    }
+  }
+
+  @Test
+  fun createNodeBuildsWordInfoLazily() {
+    val input = UTF8InputTextBuilder("東京都へ", MockGrammar()).build()
+    val node = FakeOovProvider().lazyNode(input, 3, 9)
+    assertTrue(node.isOOV)
+    assertEquals(3, node.begin)
+    assertEquals(9, node.end)
+    assertEquals(3, node.pathCost)
+    assertNull(node.extraWordInfo)
+    assertEquals(-1, node.dictionaryId)
+    assertEquals(4, node.posId.toInt())
+    assertFalse(node.normalizedFormEquals("京"))
+    assertNull(node.extraWordInfo)
+    assertTrue(node.normalizedFormEquals("京都"))
+    val wi = node.wordInfo
+    assertEquals("京都", wi.surface)
+    assertEquals("京都", wi.normalizedForm)
+    assertEquals("京都", wi.dictionaryForm)
+    assertEquals(6, wi.length.toInt())
+    assertEquals(4, wi.posId.toInt())
+    assertSame(wi, node.wordInfo)
   }
 
   @Test
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PathRewriteBuilderTest {
+
+    List<LatticeNode> path;
+    List<LatticeNode> nodes;
+    PathRewriteBuilder builder;
+
+    @Before
+    public void setUp() {
+        path = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            LatticeNodeImpl node = new LatticeNodeImpl();
+            node.setRange(i, i + 1);
+            path.add(node);
+        }
+        nodes = new ArrayList<>(path);
+        builder = new PathRewriteBuilder(path);
+    }
+
+    @Test
+    public void applyReplacements() {
+        LatticeNode first = newNode(0, 2);
+        LatticeNode second = newNode(3, 6);
+        LatticeNode third = newNode(7, 8);
+        builder.addReplacement(0, 2, first);
+        builder.addReplacement(3, 6, second);
+        builder.addReplacement(7, 8, third);
+        assertThat(builder.getNumReplacements(), is(3));
+        assertThat(path.size(), is(8));
+
+        builder.applyReplacements();
+        assertThat(builder.getNumReplacements(), is(0));
+        assertThat(path.size(), is(5));
+        assertThat(path.get(0), sameInstance(first));
+        assertThat(path.get(1), sameInstance(nodes.get(2)));
+        assertThat(path.get(2), sameInstance(second));
+        assertThat(path.get(3), sameInstance(nodes.get(6)));
+        assertThat(path.get(4), sameInstance(third));
+    }
+
+    @Test
+    public void applyNoReplacements() {
+        builder.applyReplacements();
+        assertThat(path, is(nodes));
+    }
+
+    @Test
+    public void sameAsReplacingOneByOne() {
+        LatticeNode first = newNode(1, 3);
+        LatticeNode second = newNode(4, 8);
+        builder.addReplacement(1, 3, first);
+        builder.addReplacement(4, 8, second);
+        builder.applyReplacements();
+
+        List<LatticeNode> expected = new ArrayList<>(nodes);
+        expected.subList(4, 8).clear();
+        expected.add(4, second);
+        expected.subList(1, 3).clear();
+        expected.add(1, first);
+        assertThat(path, is(expected));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void addOverlappingReplacement() {
+        builder.addReplacement(2, 4, newNode(2, 4));
+        builder.addReplacement(3, 5, newNode(3, 5));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void addEmptyReplacement() {
+        builder.addReplacement(2, 2, newNode(2, 2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void addReplacementBeyondPath() {
+        builder.addReplacement(7, 9, newNode(7, 9));
+    }
+
+    private static LatticeNode newNode(int begin, int end) {
+        LatticeNodeImpl node = new LatticeNodeImpl();
+        node.setRange(begin, end);
+        return node;
+    }
+}
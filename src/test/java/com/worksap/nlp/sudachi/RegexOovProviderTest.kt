@@ -18,6 +18,7 @@ package com.worksap.nlp.sudachi
 
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 
 class RegexOovProviderTest {
   private fun analyzer(
@@ -113,4 +114,48 @@ class RegexOovProviderTest {
     assertEquals(":", tokens[0].surface())
     assertEquals("@asda", tokens[1].surface())
   }
+
+  @Test
+  fun categories() {
+    val tokenizer = analyzer { _, cfg -> cfg.addList("categories", "KANJI") }
+    assertEquals("XAG-2F", tokenizer.tokenize("京都XAG-2F東京")[1].surface())
+    assertEquals(4, tokenizer.tokenize("XAG-2F").size)
+    assertEquals(1, analyzer { _, cfg -> cfg.addList("categories", "ALPHA") }.tokenize("XAG-2F").size)
+  }
+
+  @Test
+  fun matcherIsReusedAcrossSentencesAndTokenizers() {
+    val first = analyzer()
+    val second = analyzer()
+    repeat(2) {
+      assertEquals("XAG-2F", first.tokenize("京都XAG-2F東京")[1].surface())
+      assertEquals("ab-12", second.tokenize("東京ab-12")[1].surface())
+      assertEquals("zz9", first.tokenize("zz9京都")[0].surface())
+    }
+  }
+
+  @Test
+  fun atomicRunsWithRegexLast() {
+    // the regex covers only the beginning of the run
+    val tokenizer = analyzer { cfg, _ -> cfg.atomicRuns(4) }
+    val tokens = tokenizer.tokenize("京都XAG-2F.X/Y東京")
+    assertEquals(3, tokens.size)
+    assertEquals("XAG-2F.X/Y", tokens[1].surface())
+    assertEquals(listOf("名詞", "普通名詞", "一般", "*", "*", "*"), tokens[1].partOfSpeech())
+  }
+
+  @Test
+  fun atomicRunsWithoutSimpleOovProvider() {
+    val cfg = Config.empty()
+    cfg.addOovProviderPlugin(RegexOovProvider::class.java)
+        .add("regex", """[0-9a-z-]+""")
+        .add("cost", 3500)
+        .add("leftId", 5)
+        .add("rightId", 5)
+        .addList("pos", "名詞", "普通名詞", "一般", "*", "*", "*")
+    cfg.atomicRuns(4)
+    assertFailsWith<IllegalArgumentException> {
+      DictionaryFactory().create(cfg.withFallback(TestDictionary.user0Cfg()))
+    }
+  }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2023 Works Applications Co., Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.nlp.sudachi;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReplacementTrieTest {
+
+    ReplacementTrie trie;
+
+    @Before
+    public void setUp() {
+        Map<String, String> rules = new HashMap<>();
+        rules.put("ｳ゛", "ヴ");
+        rules.put("ｶﾞ", "ガ");
+        rules.put("ｶ", "カ");
+        rules.put("abc", "x");
+        trie = ReplacementTrie.build(rules);
+    }
+
+    @Test
+    public void longestMatch() {
+        int node = trie.longestMatch("ｶﾞｶ", 0);
+        assertThat(trie.getLength(node), is(2));
+        assertThat(trie.getReplacement(node), is("ガ"));
+
+        node = trie.longestMatch("ｶﾞｶ", 2);
+        assertThat(trie.getLength(node), is(1));
+        assertThat(trie.getReplacement(node), is("カ"));
+
+        node = trie.longestMatch("zabc", 1);
+        assertThat(trie.getLength(node), is(3));
+        assertThat(trie.getReplacement(node), is("x"));
+    }
+
+    @Test
+    public void longestMatchWithoutMatch() {
+        assertThat(trie.longestMatch("ｳ", 0), is(-1));
+        assertThat(trie.longestMatch("ab", 0), is(-1));
+        assertThat(trie.longestMatch("zabc", 0), is(-1));
+        assertThat(trie.longestMatch("", 0), is(-1));
+    }
+
+    @Test
+    public void buildWithoutRules() {
+        trie = ReplacementTrie.build(new HashMap<>());
+        assertThat(trie.longestMatch("abc", 0), is(-1));
+    }
+}
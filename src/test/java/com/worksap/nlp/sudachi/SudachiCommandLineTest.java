@@ -20,8 +20,12 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Optional;
@@ -88,6 +92,40 @@ public class SudachiCommandLineTest {
         }
     }
 
+    @Test
+    public void wordSegmentationWithBoundaries() throws IOException {
+        MorphemeFormatterPlugin formatter = SudachiCommandLine.makeFormatter(true, true, null, null);
+        // a subclass is printed from the morphemes instead of the boundaries
+        MorphemeFormatterPlugin morphemeFormatter = new WordSegmentationFormatter() {
+        };
+        morphemeFormatter.setSettings(Settings.empty());
+        morphemeFormatter.setUp();
+        morphemeFormatter.setEosString("\n");
+
+        Tokenizer tokenizer = TestDictionary.INSTANCE.user1().create();
+        byte[] input = "…東京都…に行った。\n東京府 に行った\n".getBytes(StandardCharsets.UTF_8);
+        for (Tokenizer.SplitMode mode : Tokenizer.SplitMode.values()) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            PrintStream expectedOutput = new PrintStream(expected, true, "UTF-8");
+            SudachiCommandLine.run(tokenizer, mode, new ByteArrayInputStream(input), expectedOutput, morphemeFormatter,
+                    false, true, true);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            PrintStream actualOutput = new PrintStream(actual, true, "UTF-8");
+            SudachiCommandLine.run(tokenizer, mode, new ByteArrayInputStream(input), actualOutput, formatter, false,
+                    true, true);
+            assertThat(actual.toString("UTF-8"), is(expected.toString("UTF-8")));
+        }
+    }
+
+    @Test
+    public void wordSegmentationSkipsEmptyBoundaries() throws IOException {
+        WordSegmentationFormatter formatter = (WordSegmentationFormatter) SudachiCommandLine.makeFormatter(true, true,
+                null, null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        formatter.printSentence("…東京都", new int[] { 0, 1, 1, 4 }, new PrintStream(output, true, "UTF-8"));
+        assertThat(output.toString("UTF-8"), is("… 東京都\n"));
+    }
+
     @Test
     public void commandLineHelp() throws IOException {
         SudachiCommandLine.main(new String[] { "-h" });
@@ -292,6 +292,137 @@ public class UTF8InputTextTest {
         assertThat(input.getCharCategoryContinuousLength(input.getByteText().length - 1), is(1));
     }
 
+    @Test
+    public void sliceDoesNotModifyOriginal() {
+        input = builder.build();
+        input.slice(0, 2);
+        assertThat(input.getCharCategoryContinuousLength(0), is(6));
+        assertThat(input.getCharCategoryContinuousLength(2), is(4));
+    }
+
+    @Test
+    public void sliceIsSameAsBuiltText() {
+        input = builder.build();
+        UTF8InputText slice = input.slice(4, 12);
+        UTF8InputText expected = builder(TEXT.substring(4, 12)).build();
+        assertThat(slice.getText(), is(expected.getText()));
+        assertThat(slice.getOriginalText(), is(expected.getOriginalText()));
+        assertArrayEquals(expected.getByteText(), slice.getByteText());
+        assertThat(slice.getByteLength(), is(expected.getByteLength()));
+        for (int i = 0; i < expected.getByteLength(); i++) {
+            assertThat(slice.getOriginalIndex(i), is(expected.getOriginalIndex(i)));
+            assertThat(slice.modifiedOffset(i), is(expected.modifiedOffset(i)));
+            assertThat(slice.canBow(i), is(expected.canBow(i)));
+            assertThat(slice.getCharCategoryTypeIds(i), is(expected.getCharCategoryTypeIds(i)));
+            assertThat(slice.getCharCategoryContinuousLength(i), is(expected.getCharCategoryContinuousLength(i)));
+            assertThat(slice.getWordCandidateLength(i), is(expected.getWordCandidateLength(i)));
+            assertThat(slice.getCodePointsOffsetLength(i, 2), is(expected.getCodePointsOffsetLength(i, 2)));
+        }
+        assertThat(slice.getOriginalIndex(expected.getByteLength()),
+                is(expected.getOriginalIndex(expected.getByteLength())));
+    }
+
+    @Test
+    public void getCharCategoryTypeIdsInText() {
+        input = builder.build();
+        assertThat(input.getCharCategoryTypeIdsInText(), is(unionOfCharCategoryTypeIds(input)));
+        UTF8InputText slice = input.slice(4, 7);
+        assertThat(slice.getCharCategoryTypeIdsInText(), is(unionOfCharCategoryTypeIds(slice)));
+        assertThat(slice.getCharCategoryTypeIdsInText(),
+                is(CategoryType.HIRAGANA.getId() | CategoryType.NUMERIC.getId()));
+    }
+
+    static int unionOfCharCategoryTypeIds(UTF8InputText input) {
+        int ids = 0;
+        for (int i = 0; i < input.getByteLength(); i++) {
+            ids |= input.getCharCategoryTypeIds(i);
+        }
+        return ids;
+    }
+
+    @Test
+    public void sliceOfSlice() {
+        builder.replace(1, 3, "あ");
+        input = builder.build();
+        UTF8InputText slice = input.slice(1, 9).slice(1, 4);
+        assertThat(slice.getOriginalText(), is("1あ2"));
+        assertThat(slice.getText(), is("1あ2"));
+        assertThat(slice.getByteLength(), is(5));
+        assertThat(slice.getByteOffset(), is(5));
+        assertThat(slice.getByteArray(), is(input.getByteArray()));
+        assertThat(slice.getOriginalIndex(0), is(0));
+        assertThat(slice.getOriginalIndex(1), is(1));
+        assertThat(slice.getOriginalIndex(5), is(3));
+        assertThat(slice.textIndexToOriginalTextIndex(3), is(3));
+        assertThat(slice.getSubstring(1, 4), is("あ"));
+        assertThat(slice.getCodePointsOffsetLength(0, 10), is(5));
+    }
+
+    @Test
+    public void getCharCategoryTypeIds() {
+        input = builder.build();
+        assertThat(input.getCharCategoryTypeIds(0) & CategoryType.ALPHA.getId(), is(CategoryType.ALPHA.getId()));
+        assertThat(input.getCharCategoryTypeIds(6), is(CategoryType.NUMERIC.getId()));
+        assertThat(input.getCharCategoryTypeIds(19), is(CategoryType.DEFAULT.getId()));
+        assertThat(input.getCharCategoryTypeIds(13, 19), is(CategoryType.KANJI.getId()));
+        assertThat(input.getCharCategoryTypeIds(6, 10), is(0));
+        assertThat(input.getCharCategoryTypes(13, 19), is(CategoryType.getTypes(CategoryType.KANJI.getId())));
+    }
+
+    @Test
+    public void addReplacement() {
+        builder.addReplacement(1, 3, "あああ");
+        builder.addReplacement(3, 4, "");
+        builder.addReplacement(4, 5, "");
+        builder.addReplacement(5, 6, "x");
+        builder.addReplacement(12, 14, "");
+        builder.applyReplacements();
+
+        UTF8InputTextBuilder expected = builder(TEXT);
+        expected.replace(1, 3, "あああ");
+        expected.replace(4, 5, "");
+        expected.replace(4, 5, "");
+        expected.replace(4, 5, "x");
+        expected.replace(11, 13, "");
+        assertSameInputText(expected.build(), builder.build());
+    }
+
+    @Test
+    public void addReplacementAtEnd() {
+        builder.addReplacement(0, 1, "aa");
+        builder.addReplacement(12, 14, "");
+        UTF8InputTextBuilder expected = builder(TEXT);
+        expected.replace(0, 1, "aa");
+        expected.replace(13, 15, "");
+        assertSameInputText(expected.build(), builder.build());
+    }
+
+    @Test
+    public void applyReplacementsBeforeReplace() {
+        builder.addReplacement(1, 3, "あ");
+        builder.replace(0, 1, "b");
+        assertThat(builder.getText(), is("bあ1あ234漢字𡈽アｺﾞ"));
+        builder.applyReplacements();
+        assertThat(builder.getText(), is("bあ1あ234漢字𡈽アｺﾞ"));
+    }
+
+    @Test(expected = StringIndexOutOfBoundsException.class)
+    public void addReplacementWithOverlap() {
+        builder.addReplacement(1, 3, "あ");
+        builder.addReplacement(2, 4, "い");
+    }
+
+    static void assertSameInputText(UTF8InputText expected, UTF8InputText actual) {
+        assertThat(actual.getText(), is(expected.getText()));
+        assertArrayEquals(expected.getByteText(), actual.getByteText());
+        for (int i = 0; i <= expected.getByteText().length; i++) {
+            assertThat(actual.getOriginalIndex(i), is(expected.getOriginalIndex(i)));
+        }
+        for (int i = 0; i <= expected.getText().length(); i++) {
+            assertThat(actual.textIndexToOriginalTextIndex(i), is(expected.textIndexToOriginalTextIndex(i)));
+        }
+    }
+
     private UTF8InputTextBuilder builder(String text) {
         grammar = new MockGrammar();
         return new UTF8InputTextBuilder(text, grammar);
@@ -98,4 +98,18 @@ public class UserDictionaryTest {
             assertThat(m.partOfSpeech(), contains("被子植物門", "双子葉植物綱", "ムクロジ目", "ミカン科", "ミカン属", "カボス"));
         }
     }
+
+    @Test
+    public void posIdOfUserDefinedPos() throws IOException {
+        TestDictionary td = TestDictionary.INSTANCE;
+        Config config = td.user0Cfg().addUserDictionary(td.getUserDict2()).addUserDictionary(td.getUserDict1());
+        try (Dictionary dict = new DictionaryFactory().create(config)) {
+            JapaneseTokenizer tokenizer = (JapaneseTokenizer) dict.create();
+            LatticeImpl lattice = tokenizer.buildLattice(tokenizer.buildInputText("すだちかぼす"));
+            for (LatticeNode node : lattice.getBestPath()) {
+                assertThat(node.getPOSId(), is(node.getWordInfo().getPOSId()));
+            }
+            lattice.clear();
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -62,6 +63,47 @@ public class CharacterCategoryTest {
         assertThat(category.getCategoryTypes(0x3007), hasItems(CategoryType.KANJI));
     }
 
+    @Test
+    public void getCategoryTypeIds() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (OutputStreamWriter writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+            writer.write("0x0030..0x0039 NUMERIC\n");
+            writer.write("0x0035 USER1\n");
+            writer.write("0xFFF0..0x20010 KANJI\n");
+            writer.write("0x20000..0x2A6DF KANJI NOOOVBOW\n");
+        }
+
+        CharacterCategory category = new CharacterCategory();
+        category.readCharacterDefinition(new ByteArrayInputStream(os.toByteArray()));
+        int numeric = CategoryType.NUMERIC.getId();
+        int kanji = CategoryType.KANJI.getId();
+        assertThat(category.getCategoryTypeIds(0x0030), is(numeric));
+        assertThat(category.getCategoryTypeIds(0x0035), is(numeric | CategoryType.USER1.getId()));
+        assertThat(category.getCategoryTypeIds(0x0041), is(CategoryType.DEFAULT.getId()));
+        assertThat(category.getCategoryTypeIds(0xFFFF), is(kanji));
+        assertThat(category.getCategoryTypeIds(0x10000), is(kanji));
+        assertThat(category.getCategoryTypeIds(0x20010), is(kanji | CategoryType.NOOOVBOW.getId()));
+        assertThat(category.getCategoryTypeIds(0x20011), is(kanji | CategoryType.NOOOVBOW.getId()));
+        assertThat(category.getCategoryTypeIds(0x2A6DF), is(kanji | CategoryType.NOOOVBOW.getId()));
+        assertThat(category.getCategoryTypeIds(0x2A6E0), is(CategoryType.DEFAULT.getId()));
+        assertThat(category.getCategoryTypeIds(0x10FFFF), is(CategoryType.DEFAULT.getId()));
+    }
+
+    @Test
+    public void getCategoryTypeSet() throws IOException {
+        CharacterCategory category = CharacterCategory.load(PathAnchor.classpath().resource("char.def"));
+        Set<CategoryType> types = category.getCategoryTypeSet(Character.codePointAt("熙", 0));
+        assertThat(types, hasItems(CategoryType.KANJI));
+        assertThat(types, sameInstance(category.getCategoryTypeSet(Character.codePointAt("漢", 0))));
+        assertThat(category.getCategoryTypes(Character.codePointAt("熙", 0)), is(types));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getCategoryTypeSetIsUnmodifiable() throws IOException {
+        CharacterCategory category = CharacterCategory.load(PathAnchor.classpath().resource("char.def"));
+        category.getCategoryTypeSet('a').add(CategoryType.KANJI);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void readCharacterDefinitionWithInvalidFormat() throws IOException {
         ByteArrayOutputStream os = new ByteArrayOutputStream();
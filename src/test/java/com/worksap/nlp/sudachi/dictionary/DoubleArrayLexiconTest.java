@@ -18,15 +18,19 @@ package com.worksap.nlp.sudachi.dictionary;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import com.worksap.nlp.sudachi.TestDictionary;
+import com.worksap.nlp.sudachi.Tokenizer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -79,6 +83,34 @@ public class DoubleArrayLexiconTest {
         assertEquals(2914, lexicon.getCost(9));
     }
 
+    @Test
+    public void posIdAndNormalizedForm() {
+        for (int wordId = 0; wordId < lexicon.size(); wordId++) {
+            WordInfo wi = lexicon.getWordInfo(wordId);
+            assertEquals(wi.getPOSId(), lexicon.getPOSId(wordId));
+            assertTrue(lexicon.normalizedFormEquals(wordId, wi.getNormalizedForm()));
+            assertFalse(lexicon.normalizedFormEquals(wordId, wi.getNormalizedForm() + "た"));
+            assertFalse(lexicon.normalizedFormEquals(wordId, ""));
+        }
+    }
+
+    @Test
+    public void packedParameters() {
+        for (int wordId = 0; wordId < lexicon.size(); wordId++) {
+            long parameters = lexicon.getParameters(wordId);
+            assertEquals(lexicon.getLeftId(wordId), WordParameters.leftId(parameters));
+            assertEquals(lexicon.getRightId(wordId), WordParameters.rightId(parameters));
+            assertEquals(lexicon.getCost(wordId), WordParameters.cost(parameters));
+            assertEquals(WordParameters.make(lexicon.getLeftId(wordId), lexicon.getRightId(wordId),
+                    lexicon.getCost(wordId)), parameters);
+        }
+
+        long parameters = WordParameters.make((short) -1, Short.MAX_VALUE, Short.MIN_VALUE);
+        assertEquals(-1, WordParameters.leftId(parameters));
+        assertEquals(Short.MAX_VALUE, WordParameters.rightId(parameters));
+        assertEquals(Short.MIN_VALUE, WordParameters.cost(parameters));
+    }
+
     @Test
     public void wordInfo() {
         // た
@@ -122,6 +154,31 @@ public class DoubleArrayLexiconTest {
         assertEquals(570, wi.getReadingForm().length());
     }
 
+    @Test
+    public void splitWithoutWordInfo() {
+        int[] split = new int[256];
+        assertEquals(3, lexicon.getHeadwordLength(0));
+        assertEquals(9, lexicon.getHeadwordLength(6));
+        assertEquals(300, lexicon.getHeadwordLength(36));
+
+        // 東京都
+        assertEquals(2, lexicon.readSplit(6, Tokenizer.SplitMode.A, split));
+        assertEquals(5, split[0]);
+        assertEquals(9, split[1]);
+        assertEquals(0, lexicon.readSplit(6, Tokenizer.SplitMode.B, split));
+        // た
+        assertEquals(0, lexicon.readSplit(0, Tokenizer.SplitMode.A, split));
+
+        for (int wid = 0; wid < lexicon.size(); wid++) {
+            WordInfo wi = lexicon.getWordInfo(wid);
+            assertEquals(wi.getLength(), lexicon.getHeadwordLength(wid));
+            int length = lexicon.readSplit(wid, Tokenizer.SplitMode.A, split);
+            assertArrayEquals(wi.getAunitSplit(), Arrays.copyOf(split, length));
+            length = lexicon.readSplit(wid, Tokenizer.SplitMode.B, split);
+            assertArrayEquals(wi.getBunitSplit(), Arrays.copyOf(split, length));
+        }
+    }
+
     @Test
     public void size() {
         assertEquals(39, lexicon.size());
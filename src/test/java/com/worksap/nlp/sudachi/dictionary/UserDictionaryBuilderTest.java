@@ -27,7 +27,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
+import com.worksap.nlp.sudachi.Config;
+import com.worksap.nlp.sudachi.DictionaryFactory;
+import com.worksap.nlp.sudachi.JapaneseDictionary;
 import com.worksap.nlp.sudachi.TestDictionary;
+import com.worksap.nlp.sudachi.WordId;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -99,4 +103,35 @@ public class UserDictionaryBuilderTest {
             assertFalse(i.hasNext());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void commandLineWithCosts() throws IOException {
+        File outputFile = temporaryFolder.newFile();
+        File costsOutputFile = temporaryFolder.newFile();
+        File inputFile = temporaryFolder.newFile();
+
+        try (FileWriter writer = new FileWriter(inputFile)) {
+            writer.write("ぴらる,8,8,-32768,ぴらる,名詞,普通名詞,一般,*,*,*,ピラル,ぴらる,*,A,*,*,*,*\n");
+            writer.write("府,8,8,2914,府,名詞,普通名詞,一般,*,*,*,フ,府,*,A,*,*,*,*\n");
+        }
+
+        UserDictionaryBuilder.main(
+                new String[] { "-o", outputFile.getPath(), "-s", systemDictFile.getPath(), inputFile.getPath() });
+        UserDictionaryBuilder.main(new String[] { "-o", costsOutputFile.getPath(), "-s", systemDictFile.getPath(),
+                "-c", inputFile.getPath() });
+
+        // the cost calculated at load time
+        Config config = TestDictionary.INSTANCE.user0Cfg().addUserDictionary(outputFile.toPath());
+        short expected;
+        try (JapaneseDictionary dictionary = (JapaneseDictionary) new DictionaryFactory().create(config)) {
+            expected = dictionary.getLexicon().getCost(WordId.make(1, 0));
+        }
+        assertThat(expected == Short.MIN_VALUE, is(false));
+
+        try (BinaryDictionary dictionary = new BinaryDictionary(costsOutputFile.getPath())) {
+            Lexicon lexicon = dictionary.getLexicon();
+            assertThat(lexicon.getCost(0), is(expected));
+            assertThat(lexicon.getCost(1), is((short) 2914));
+        }
+    }
+}